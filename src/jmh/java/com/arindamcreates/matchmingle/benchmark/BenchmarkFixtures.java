@@ -0,0 +1,110 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import static org.mockito.Mockito.mock;
+
+import com.arindamcreates.matchmingle.dto.IdRequest;
+import com.arindamcreates.matchmingle.dto.UserRequest;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.repository.RelationshipStore;
+import com.arindamcreates.matchmingle.repository.UserProfileRepository;
+import com.arindamcreates.matchmingle.service.AdminService;
+import com.arindamcreates.matchmingle.service.DomainEventRelay;
+import com.arindamcreates.matchmingle.service.PrincipalRevocationRegistry;
+import com.arindamcreates.matchmingle.service.SlowQueryMonitor;
+import com.arindamcreates.matchmingle.service.UserDeletionJobService;
+import com.arindamcreates.matchmingle.service.UserPrincipalCache;
+import com.arindamcreates.matchmingle.service.UserService;
+import com.arindamcreates.matchmingle.service.VirtualThreadPinningMonitor;
+import com.arindamcreates.matchmingle.utils.AuthUtil;
+import java.util.HashSet;
+import java.util.Set;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/** Test data and wiring shared by the benchmarks. */
+final class BenchmarkFixtures {
+
+  /** HMAC key used by the JWT benchmarks, long enough for HS256. */
+  static final String SECRET_KEY = "benchmark-secret-key-benchmark-secret-key-0123456789";
+
+  private BenchmarkFixtures() {}
+
+  static User userWithConnections(String email, int connections) {
+    Set<ObjectId> peers = new HashSet<>(connections * 2);
+    for (int i = 0; i < connections; i++) {
+      peers.add(new ObjectId());
+    }
+    return User.builder()
+        .id(new ObjectId())
+        .firstName("Bench")
+        .lastName("Mark")
+        .gender("M")
+        .location("Kolkata")
+        .email(email)
+        .phone("9876543210")
+        .tagLine("Hello there")
+        .summary("Benchmark user")
+        .imageUrl("IMAGE.URL")
+        .role("USER")
+        .userLocked(false)
+        .userDetailsProvided(true)
+        .securityVersion(0L)
+        .connections(peers)
+        .incomingRequests(new HashSet<>())
+        .outgoingRequests(new HashSet<>())
+        .build();
+  }
+
+  static UserRequest userRequest() {
+    return UserRequest.builder()
+        .firstName("Updated")
+        .lastName("Name")
+        .gender("f")
+        .location("Pune")
+        .phone("9123456780")
+        .imageUrl("IMAGE.URL")
+        .tagLine("Updated tag line")
+        .summary("Updated summary")
+        .build();
+  }
+
+  static IdRequest idRequest(ObjectId id) {
+    IdRequest request = new IdRequest();
+    request.setId(id.toHexString());
+    return request;
+  }
+
+  /** Resolves the current user without a security context, which is bound to another thread. */
+  static AuthUtil authenticatedAs(String email) {
+    return new AuthUtil() {
+      @Override
+      public String getCurrentUserEmail() {
+        return email;
+      }
+    };
+  }
+
+  /**
+   * The admin service over the given user service and stores. The monitors, caches, the
+   * deletion job service and the template for lock updates are Mockito mocks, the admin reads the
+   * benchmarks measure never reach them.
+   */
+  static AdminService adminService(
+      UserService userService,
+      AuthUtil authUtil,
+      RelationshipStore relationshipStore,
+      UserProfileRepository userProfileRepository) {
+    return new AdminService(
+        userService,
+        authUtil,
+        mock(UserPrincipalCache.class),
+        mock(PrincipalRevocationRegistry.class),
+        mock(UserDeletionJobService.class),
+        relationshipStore,
+        userProfileRepository,
+        mock(VirtualThreadPinningMonitor.class),
+        mock(DomainEventRelay.class),
+        mock(SlowQueryMonitor.class),
+        mock(MongoTemplate.class));
+  }
+}
@@ -0,0 +1,101 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Synthetic comparison of the executors behind the request thread modes, not a load test of the
+ * application: a burst of tasks that each only sleep for about one Mongo round trip, run on a pool
+ * the size of Tomcat's default (200 platform threads) or on one virtual thread per task. No
+ * servlet container, security filter or Mongo call is involved, so the numbers bound what the
+ * thread mode alone can change. {@code VIRTUAL_PINNED} sleeps inside {@code synchronized}, which
+ * pins the carrier on JDK 21 and takes the headroom away again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BlockingTaskExecutorBenchmark {
+
+  private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+  private static final long BLOCKING_CALL_MILLIS = 20;
+
+  public enum ThreadMode {
+    PLATFORM,
+    VIRTUAL,
+    VIRTUAL_PINNED
+  }
+
+  @Param({"PLATFORM", "VIRTUAL", "VIRTUAL_PINNED"})
+  private ThreadMode mode;
+
+  @Param({"200", "1000", "5000"})
+  private int concurrentTasks;
+
+  private ExecutorService executor;
+
+  @Setup
+  public void setUp() {
+    executor =
+        mode == ThreadMode.PLATFORM
+            ? Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS)
+            : Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  /** Time until the whole burst has been served. */
+  @Benchmark
+  public int burst() throws Exception {
+    List<Future<?>> tasks = new ArrayList<>(concurrentTasks);
+    for (int i = 0; i < concurrentTasks; i++) {
+      tasks.add(executor.submit(mode == ThreadMode.VIRTUAL_PINNED ? pinned() : blocking()));
+    }
+    for (Future<?> task : tasks) {
+      task.get();
+    }
+    return tasks.size();
+  }
+
+  private static Runnable blocking() {
+    return BlockingTaskExecutorBenchmark::blockingCall;
+  }
+
+  private static Runnable pinned() {
+    Object monitor = new Object();
+    return () -> {
+      synchronized (monitor) {
+        blockingCall();
+      }
+    };
+  }
+
+  private static void blockingCall() {
+    try {
+      Thread.sleep(BLOCKING_CALL_MILLIS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import com.arindamcreates.matchmingle.dto.IdRequest;
+import com.arindamcreates.matchmingle.dto.UserRequest;
+import com.arindamcreates.matchmingle.dto.UserResponse;
+import com.arindamcreates.matchmingle.dto.UserResponseForAdmin;
+import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.repository.ConnectionRepository;
+import com.arindamcreates.matchmingle.repository.EmbeddedRelationshipStore;
+import com.arindamcreates.matchmingle.repository.OutboxRepository;
+import com.arindamcreates.matchmingle.repository.ProfileUpdateRepository;
+import com.arindamcreates.matchmingle.repository.UserProfileRepository;
+import com.arindamcreates.matchmingle.repository.UserRepository;
+import com.arindamcreates.matchmingle.repository.VisibilityRequestRepository;
+import com.arindamcreates.matchmingle.service.AdminService;
+import com.arindamcreates.matchmingle.service.ProfileWriteBehind;
+import com.arindamcreates.matchmingle.service.UserActionMetrics;
+import com.arindamcreates.matchmingle.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * The service paths end to end against an embedded mongod, with the embedded relationship store.
+ * The viewer owns the given number of connections. Each write benchmark returns the data to its
+ * starting state, so iterations measure the same documents. Writes include their outbox append,
+ * without a transaction since the embedded mongod is not a replica set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddedMongoServiceBenchmark {
+
+  private static final String VIEWER_EMAIL = "viewer@matchmingle.com";
+  private static final String TARGET_EMAIL = "target@matchmingle.com";
+  private static final String FRIEND_EMAIL = "friend@matchmingle.com";
+  private static final int PAGE_SIZE = 1000;
+
+  @Param({"10", "1000", "100000"})
+  private int connections;
+
+  private TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+  private MongoClient mongoClient;
+  private UserService viewerService;
+  private UserService targetService;
+  private AdminService adminService;
+  private String viewerId;
+  private String targetId;
+  private IdRequest friendIdRequest;
+  private UserRequest userRequest;
+
+  @Setup
+  public void setUp() {
+    mongod = Mongod.instance().start(Version.Main.V7_0);
+    mongoClient = MongoClients.create("mongodb://" + mongod.current().getServerAddress());
+    MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, "matchmingle-benchmark");
+    mongoTemplate
+        .indexOps(Connection.class)
+        .ensureIndex(new Index().on("pairKey", Sort.Direction.ASC).unique().sparse());
+
+    User viewer = BenchmarkFixtures.userWithConnections(VIEWER_EMAIL, connections - 1);
+    User target = BenchmarkFixtures.userWithConnections(TARGET_EMAIL, 0);
+    User friend = BenchmarkFixtures.userWithConnections(FRIEND_EMAIL, 0);
+    viewer.getConnections().add(friend.getId());
+    friend.getConnections().add(viewer.getId());
+    mongoTemplate.insert(viewer);
+    mongoTemplate.insert(target);
+    mongoTemplate.insert(friend);
+    mongoTemplate.insert(Connection.createConnection(viewer.getId(), friend.getId()));
+    viewerId = viewer.getId().toHexString();
+    targetId = target.getId().toHexString();
+    friendIdRequest = BenchmarkFixtures.idRequest(friend.getId());
+    userRequest = BenchmarkFixtures.userRequest();
+
+    MongoRepositoryFactory repositoryFactory = new MongoRepositoryFactory(mongoTemplate);
+    UserRepository userRepository = repositoryFactory.getRepository(UserRepository.class);
+    ConnectionRepository connectionRepository =
+        repositoryFactory.getRepository(ConnectionRepository.class);
+    VisibilityRequestRepository visibilityRequestRepository =
+        repositoryFactory.getRepository(VisibilityRequestRepository.class);
+    EmbeddedRelationshipStore relationshipStore = new EmbeddedRelationshipStore(mongoTemplate);
+    UserProfileRepository userProfileRepository = new UserProfileRepository(mongoTemplate);
+    OutboxRepository outboxRepository = new OutboxRepository(mongoTemplate);
+    ProfileUpdateRepository profileUpdateRepository =
+        new ProfileUpdateRepository(mongoTemplate, "ACKNOWLEDGED");
+    ProfileWriteBehind profileWriteBehind =
+        new ProfileWriteBehind(profileUpdateRepository, false, 0);
+    ObjectMapper objectMapper = new ObjectMapper();
+    UserActionMetrics userActionMetrics = new UserActionMetrics(new SimpleMeterRegistry());
+
+    viewerService =
+        new UserService(
+            BenchmarkFixtures.authenticatedAs(VIEWER_EMAIL),
+            connectionRepository,
+            userRepository,
+            relationshipStore,
+            userProfileRepository,
+            visibilityRequestRepository,
+            mongoTemplate,
+            objectMapper,
+            outboxRepository,
+            TransactionOperations.withoutTransaction(),
+            profileWriteBehind,
+            userActionMetrics);
+    targetService =
+        new UserService(
+            BenchmarkFixtures.authenticatedAs(TARGET_EMAIL),
+            connectionRepository,
+            userRepository,
+            relationshipStore,
+            userProfileRepository,
+            visibilityRequestRepository,
+            mongoTemplate,
+            objectMapper,
+            outboxRepository,
+            TransactionOperations.withoutTransaction(),
+            profileWriteBehind,
+            userActionMetrics);
+    adminService =
+        BenchmarkFixtures.adminService(
+            viewerService,
+            BenchmarkFixtures.authenticatedAs(FRIEND_EMAIL),
+            relationshipStore,
+            userProfileRepository);
+  }
+
+  @TearDown
+  public void tearDown() {
+    mongoClient.close();
+    mongod.close();
+  }
+
+  @Benchmark
+  public void sendAndDenyRequest() {
+    viewerService.sendRequest(targetId);
+    targetService.denyRequest(viewerId);
+  }
+
+  @Benchmark
+  public void sendAcceptAndRemoveConnection() {
+    viewerService.sendRequest(targetId);
+    targetService.acceptRequest(viewerId);
+    viewerService.removeConnection(targetId);
+  }
+
+  @Benchmark
+  public UserResponse findUserById() {
+    return viewerService.findUserById(friendIdRequest);
+  }
+
+  @Benchmark
+  public UserResponseForAdmin adminFindUserByEmail() {
+    return adminService.findUserByEmail(VIEWER_EMAIL, PAGE_SIZE);
+  }
+
+  @Benchmark
+  public UserResponse addUserDetails() {
+    return viewerService.addUserDetails(userRequest);
+  }
+}
@@ -0,0 +1,85 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import com.arindamcreates.matchmingle.utils.JwtUtil;
+import com.arindamcreates.matchmingle.utils.TokenClaims;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Token handling per request: the original path that derived the key and parsed the token once
+ * per extracted claim, against {@link JwtUtil} with and without its verified token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+  private JwtUtil cachedJwtUtil;
+  private JwtUtil uncachedJwtUtil;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    cachedJwtUtil = jwtUtil(Duration.ofMinutes(10));
+    // A zero TTL expires every entry on insert, so every call verifies the signature.
+    uncachedJwtUtil = jwtUtil(Duration.ZERO);
+    token = cachedJwtUtil.generateToken("bench@matchmingle.com");
+  }
+
+  @Benchmark
+  public void originalPerClaimParsing(Blackhole blackhole) {
+    blackhole.consume(originalClaims(token).getSubject());
+    blackhole.consume(originalClaims(token).getExpiration().before(new Date()));
+  }
+
+  @Benchmark
+  public TokenClaims parseTokenUncached() {
+    return uncachedJwtUtil.parseToken(token);
+  }
+
+  @Benchmark
+  public TokenClaims parseTokenCached() {
+    return cachedJwtUtil.parseToken(token);
+  }
+
+  @Benchmark
+  public String generateToken() {
+    return cachedJwtUtil.generateToken("bench@matchmingle.com");
+  }
+
+  private static Claims originalClaims(String token) {
+    SecretKey key = Keys.hmacShaKeyFor(BenchmarkFixtures.SECRET_KEY.getBytes());
+    return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+  }
+
+  private static JwtUtil jwtUtil(Duration cacheTtl) {
+    JwtUtil jwtUtil = new JwtUtil();
+    ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", BenchmarkFixtures.SECRET_KEY);
+    ReflectionTestUtils.setField(jwtUtil, "verifiedTokenCacheMaxSize", 10_000L);
+    ReflectionTestUtils.setField(jwtUtil, "verifiedTokenCacheTtl", cacheTtl);
+    ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+    return jwtUtil;
+  }
+}
@@ -0,0 +1,180 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.arindamcreates.matchmingle.dto.IdRequest;
+import com.arindamcreates.matchmingle.dto.UserProfileProjection;
+import com.arindamcreates.matchmingle.dto.UserRequest;
+import com.arindamcreates.matchmingle.dto.UserResponse;
+import com.arindamcreates.matchmingle.dto.UserResponseForAdmin;
+import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.repository.ConnectionRepository;
+import com.arindamcreates.matchmingle.repository.OutboxRepository;
+import com.arindamcreates.matchmingle.repository.ProfileUpdateRepository;
+import com.arindamcreates.matchmingle.repository.RelationshipStore;
+import com.arindamcreates.matchmingle.repository.RelationshipStore.SendOutcome;
+import com.arindamcreates.matchmingle.repository.UserProfileRepository;
+import com.arindamcreates.matchmingle.repository.UserRepository;
+import com.arindamcreates.matchmingle.repository.VisibilityRequestRepository;
+import com.arindamcreates.matchmingle.service.AdminService;
+import com.arindamcreates.matchmingle.service.ProfileWriteBehind;
+import com.arindamcreates.matchmingle.service.UserActionMetrics;
+import com.arindamcreates.matchmingle.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Service logic and DTO mapping with the repositories mocked out, so the numbers exclude the
+ * database. The relationship stores answer with fixed outcomes, and reads return a user with the
+ * given number of connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MockedServiceBenchmark {
+
+  private static final String VIEWER_EMAIL = "viewer@matchmingle.com";
+  private static final String TARGET_EMAIL = "target@matchmingle.com";
+  private static final int PAGE_SIZE = 1000;
+
+  @Param({"10", "1000", "100000"})
+  private int connections;
+
+  private UserService userService;
+  private AdminService adminService;
+  private String targetId;
+  private IdRequest targetIdRequest;
+  private UserRequest userRequest;
+
+  @Setup
+  public void setUp() {
+    User viewer = BenchmarkFixtures.userWithConnections(VIEWER_EMAIL, connections);
+    User target = BenchmarkFixtures.userWithConnections(TARGET_EMAIL, connections);
+    targetId = target.getId().toHexString();
+    targetIdRequest = BenchmarkFixtures.idRequest(target.getId());
+    userRequest = BenchmarkFixtures.userRequest();
+
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.findIdentityById(target.getId())).thenReturn(Optional.of(identity(target)));
+    when(userRepository.findIdentityByEmail(VIEWER_EMAIL))
+        .thenReturn(Optional.of(identity(viewer)));
+    when(userRepository.findProfilesByEmailOrPhone(eq(VIEWER_EMAIL), anyString()))
+        .thenReturn(List.of(viewer));
+    when(userRepository.save(any(User.class))).thenAnswer(call -> call.getArgument(0));
+
+    ConnectionRepository connectionRepository = mock(ConnectionRepository.class);
+    when(connectionRepository.save(any(Connection.class))).thenAnswer(call -> call.getArgument(0));
+
+    List<ObjectId> firstPage = new ArrayList<>(viewer.getConnections());
+    firstPage = firstPage.subList(0, Math.min(PAGE_SIZE, firstPage.size()));
+    RelationshipStore relationshipStore = mock(RelationshipStore.class);
+    when(relationshipStore.sendRequest(any(), any())).thenReturn(SendOutcome.SENT);
+    when(relationshipStore.acceptRequest(any(), any())).thenReturn(true);
+    when(relationshipStore.denyRequest(any(), any())).thenReturn(true);
+    when(relationshipStore.count(any(), any(RelationshipType.class)))
+        .thenReturn((long) connections);
+    when(relationshipStore.findPeers(any(), any(RelationshipType.class), isNull(), anyInt()))
+        .thenReturn(firstPage);
+
+    UserProfileRepository userProfileRepository = mock(UserProfileRepository.class);
+    when(userProfileRepository.findProfileForViewer(target.getId(), VIEWER_EMAIL))
+        .thenReturn(Optional.of(profile(target)));
+    when(userProfileRepository.findAdminProfileByEmail(VIEWER_EMAIL))
+        .thenReturn(Optional.of(viewer));
+
+    ProfileUpdateRepository profileUpdateRepository = mock(ProfileUpdateRepository.class);
+    when(profileUpdateRepository.applyChanges(any(), any(), any())).thenReturn(true);
+
+    userService =
+        new UserService(
+            BenchmarkFixtures.authenticatedAs(VIEWER_EMAIL),
+            connectionRepository,
+            userRepository,
+            relationshipStore,
+            userProfileRepository,
+            mock(VisibilityRequestRepository.class),
+            mock(MongoTemplate.class),
+            new ObjectMapper(),
+            mock(OutboxRepository.class),
+            TransactionOperations.withoutTransaction(),
+            new ProfileWriteBehind(profileUpdateRepository, false, 0),
+            new UserActionMetrics(new SimpleMeterRegistry()));
+    adminService =
+        BenchmarkFixtures.adminService(
+            userService,
+            BenchmarkFixtures.authenticatedAs(TARGET_EMAIL),
+            relationshipStore,
+            userProfileRepository);
+  }
+
+  @Benchmark
+  public void sendRequest() {
+    userService.sendRequest(targetId);
+  }
+
+  @Benchmark
+  public void acceptRequest() {
+    userService.acceptRequest(targetId);
+  }
+
+  @Benchmark
+  public UserResponse findUserById() {
+    return userService.findUserById(targetIdRequest);
+  }
+
+  @Benchmark
+  public UserResponseForAdmin adminFindUserByEmail() {
+    return adminService.findUserByEmail(VIEWER_EMAIL, PAGE_SIZE);
+  }
+
+  @Benchmark
+  public UserResponse addUserDetails() {
+    return userService.addUserDetails(userRequest);
+  }
+
+  private static User identity(User user) {
+    return User.builder().id(user.getId()).email(user.getEmail()).build();
+  }
+
+  private static UserProfileProjection profile(User user) {
+    UserProfileProjection profile = new UserProfileProjection();
+    profile.setFirstName(user.getFirstName());
+    profile.setLastName(user.getLastName());
+    profile.setGender(user.getGender());
+    profile.setLocation(user.getLocation());
+    profile.setImageUrl(user.getImageUrl());
+    profile.setTagLine(user.getTagLine());
+    profile.setSummary(user.getSummary());
+    profile.setConnected(true);
+    return profile;
+  }
+}
@@ -0,0 +1,109 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import com.arindamcreates.matchmingle.dto.ProfileSearchResponse;
+import com.arindamcreates.matchmingle.repository.ProfileSearchRepository;
+import com.arindamcreates.matchmingle.service.ProfileSearchService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Profile search latency, reported as percentiles by the sample time mode; the target is a p99
+ * under 50 ms at a few million users. With {@code -Dbenchmark.mongo.uri} the benchmark runs
+ * against a database filled by {@link ProfileSearchDataset}, otherwise it generates the given
+ * number of users in an embedded mongod. Each search reads a first page and the page after it,
+ * so the seek cursor is measured as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProfileSearchBenchmark {
+
+  private static final int PAGE_SIZE = 20;
+  /** Most and least common city of the generated distribution. */
+  private static final String POPULAR_CITY = ProfileSearchDataset.CITIES[0];
+
+  private static final String RARE_CITY =
+      ProfileSearchDataset.CITIES[ProfileSearchDataset.CITIES.length - 1];
+
+  @Param({"200000"})
+  private int embeddedUsers;
+
+  private TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+  private MongoClient mongoClient;
+  private ProfileSearchService profileSearchService;
+
+  @Setup
+  public void setUp() {
+    String uri = System.getProperty("benchmark.mongo.uri");
+    if (uri == null) {
+      mongod = Mongod.instance().start(Version.Main.V7_0);
+      uri = "mongodb://" + mongod.current().getServerAddress();
+    }
+    mongoClient = MongoClients.create(uri);
+    MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, ProfileSearchDataset.DATABASE);
+    if (mongod != null) {
+      ProfileSearchDataset.generate(mongoTemplate, embeddedUsers, 42);
+    }
+    profileSearchService = new ProfileSearchService(new ProfileSearchRepository(mongoTemplate));
+  }
+
+  @TearDown
+  public void tearDown() {
+    mongoClient.close();
+    if (mongod != null) {
+      mongod.close();
+    }
+  }
+
+  @Benchmark
+  public ProfileSearchResponse popularCityAndGender() {
+    return twoPages(POPULAR_CITY, "f", null);
+  }
+
+  @Benchmark
+  public ProfileSearchResponse rareCityAndGender() {
+    return twoPages(RARE_CITY, "m", null);
+  }
+
+  @Benchmark
+  public ProfileSearchResponse genderOnly() {
+    return twoPages(null, "f", null);
+  }
+
+  @Benchmark
+  public ProfileSearchResponse text() {
+    return twoPages(null, null, "photography mountains");
+  }
+
+  @Benchmark
+  public ProfileSearchResponse textInPopularCity() {
+    return twoPages(POPULAR_CITY, "m", "jazz");
+  }
+
+  private ProfileSearchResponse twoPages(String location, String gender, String text) {
+    ProfileSearchResponse first =
+        profileSearchService.search(location, gender, text, null, PAGE_SIZE);
+    return profileSearchService.search(location, gender, text, first.getNextCursor(), PAGE_SIZE);
+  }
+}
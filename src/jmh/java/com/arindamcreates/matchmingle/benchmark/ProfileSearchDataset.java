@@ -0,0 +1,153 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import com.arindamcreates.matchmingle.config.MongoIndexInitializer;
+import com.arindamcreates.matchmingle.model.User;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Generates users for the profile search benchmark. Cities follow a Zipf-like distribution, so a
+ * few cities hold most users, tag lines and summaries are drawn from a small vocabulary, about 5%
+ * of users are locked and about 10% have not provided their details. The search indexes are
+ * created through {@link MongoIndexInitializer}, so the benchmark measures the same definitions
+ * the application creates.
+ *
+ * <p>To generate a few million users in a standalone database:
+ *
+ * <pre>
+ * mvn -P benchmark test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.arindamcreates.matchmingle.benchmark.ProfileSearchDataset \
+ *   -Dexec.args="mongodb://localhost:27017 3000000"
+ * </pre>
+ *
+ * and run {@link ProfileSearchBenchmark} with {@code -Dbenchmark.mongo.uri} pointing at it.
+ */
+final class ProfileSearchDataset {
+
+  static final String DATABASE = "matchmingle-benchmark";
+
+  static final String[] CITIES = {
+    "Kolkata", "Mumbai", "Delhi", "Bengaluru", "Chennai", "Hyderabad", "Pune", "Ahmedabad",
+    "Jaipur", "Lucknow", "Kanpur", "Nagpur", "Indore", "Thane", "Bhopal", "Patna", "Vadodara",
+    "Ludhiana", "Agra", "Nashik", "Surat", "Ranchi", "Guwahati", "Mysuru", "Kochi", "Durgapur",
+    "Siliguri", "Asansol", "Bhubaneswar", "Coimbatore", "Madurai", "Varanasi", "Amritsar",
+    "Jodhpur", "Raipur", "Kota", "Chandigarh", "Dehradun", "Shillong", "Goa"
+  };
+
+  static final String[] WORDS = {
+    "music", "travel", "coffee", "books", "hiking", "cricket", "football", "movies", "cooking",
+    "yoga", "photography", "art", "dance", "startup", "engineer", "doctor", "teacher", "design",
+    "coding", "gaming", "poetry", "guitar", "piano", "running", "cycling", "mountains", "beach",
+    "foodie", "writer", "reader", "dogs", "cats", "gardening", "painting", "theatre", "history",
+    "science", "finance", "marketing", "fashion", "fitness", "swimming", "chess", "volunteer",
+    "family", "friends", "adventure", "quiet", "weekends", "sunsets", "tea", "street", "food",
+    "classical", "jazz", "rock", "indie", "spiritual", "meditation", "languages"
+  };
+
+  private static final int BATCH_SIZE = 10_000;
+
+  private ProfileSearchDataset() {}
+
+  public static void main(String[] args) {
+    String uri = args.length > 0 ? args[0] : "mongodb://localhost:27017";
+    int users = args.length > 1 ? Integer.parseInt(args[1]) : 3_000_000;
+    try (MongoClient mongoClient = MongoClients.create(uri)) {
+      MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+      long start = System.currentTimeMillis();
+      generate(mongoTemplate, users, 42);
+      System.out.printf(
+          "Generated %d users in %d s%n", users, (System.currentTimeMillis() - start) / 1000);
+    }
+  }
+
+  /** Replaces the users of the benchmark database with a generated set and creates indexes. */
+  static void generate(MongoTemplate mongoTemplate, int users, long seed) {
+    mongoTemplate.dropCollection(User.class);
+    SplittableRandom random = new SplittableRandom(seed);
+    double[] cityWeights = zipfCumulativeWeights(CITIES.length);
+    List<User> batch = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < users; i++) {
+      batch.add(user(i, random, cityWeights));
+      if (batch.size() == BATCH_SIZE) {
+        mongoTemplate.insert(batch, User.class);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      mongoTemplate.insert(batch, User.class);
+    }
+    ensureIndexes(mongoTemplate);
+  }
+
+  static String words(SplittableRandom random, int count) {
+    StringBuilder words = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        words.append(' ');
+      }
+      words.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return words.toString();
+  }
+
+  private static User user(int index, SplittableRandom random, double[] cityWeights) {
+    return User.builder()
+        .id(new ObjectId())
+        .firstName("First" + index)
+        .lastName("Last" + index)
+        .gender(random.nextBoolean() ? "M" : "F")
+        .location(CITIES[pick(cityWeights, random)])
+        .email("user" + index + "@benchmark.matchmingle.com")
+        .phone(String.valueOf(6_000_000_000L + index))
+        .tagLine(words(random, 4))
+        .summary(words(random, 20))
+        .imageUrl("IMAGE.URL")
+        .role("USER")
+        .userLocked(random.nextInt(100) < 5)
+        .userDetailsProvided(random.nextInt(100) >= 10)
+        .securityVersion(0L)
+        .connections(new HashSet<>())
+        .incomingRequests(new HashSet<>())
+        .outgoingRequests(new HashSet<>())
+        .build();
+  }
+
+  private static void ensureIndexes(MongoTemplate mongoTemplate) {
+    MongoIndexInitializer indexInitializer =
+        new MongoIndexInitializer(mongoTemplate, new MongoMappingContext());
+    ReflectionTestUtils.setField(indexInitializer, "indexVerification", "warn");
+    ReflectionTestUtils.setField(indexInitializer, "ensureIndexes", true);
+    ReflectionTestUtils.setField(
+        indexInitializer, "pendingVisibilityRequestTtl", Duration.ofDays(30));
+    ReflectionTestUtils.setField(indexInitializer, "outboxRetention", Duration.ofDays(7));
+    indexInitializer.run(null);
+  }
+
+  private static double[] zipfCumulativeWeights(int ranks) {
+    double[] cumulative = new double[ranks];
+    double total = 0;
+    for (int rank = 0; rank < ranks; rank++) {
+      total += 1.0 / (rank + 1);
+      cumulative[rank] = total;
+    }
+    for (int rank = 0; rank < ranks; rank++) {
+      cumulative[rank] /= total;
+    }
+    return cumulative;
+  }
+
+  private static int pick(double[] cumulativeWeights, SplittableRandom random) {
+    int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+    return Math.min(index < 0 ? -index - 1 : index, cumulativeWeights.length - 1);
+  }
+}
@@ -0,0 +1,99 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.service.ConnectionGraph;
+import com.arindamcreates.matchmingle.service.ConnectionGraph.Suggestion;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Serving suggestions from the connection graph for a user with many connections, in a random
+ * graph of {@value #USERS} users where everyone else has about {@value #AVERAGE_DEGREE}
+ * connections. The graph is bulk loaded through a mocked Mongo stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class RecommendationBenchmark {
+
+  private static final int USERS = 200_000;
+  private static final int AVERAGE_DEGREE = 40;
+
+  @Param({"10000", "50000"})
+  private int connections;
+
+  private ConnectionGraph connectionGraph;
+  private ObjectId user;
+  private ObjectId stranger;
+  private ObjectId newConnection;
+
+  @Setup
+  public void setUp() {
+    ObjectId[] ids = new ObjectId[USERS];
+    for (int i = 0; i < USERS; i++) {
+      ids[i] = new ObjectId();
+    }
+    user = ids[0];
+    stranger = ids[USERS - 1];
+    newConnection = ids[USERS - 2];
+    SplittableRandom random = new SplittableRandom(42);
+    // User 0 is connected to users 1..connections, everyone has random connections besides.
+    Stream<Connection> hub =
+        IntStream.rangeClosed(1, connections)
+            .mapToObj(peer -> Connection.createConnection(ids[0], ids[peer]));
+    Stream<Connection> background =
+        IntStream.range(0, USERS * AVERAGE_DEGREE / 2)
+            .mapToObj(
+                i ->
+                    Connection.createConnection(
+                        ids[1 + random.nextInt(USERS - 3)], ids[1 + random.nextInt(USERS - 3)]));
+
+    MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    when(mongoTemplate.stream(any(Query.class), eq(Connection.class)))
+        .thenReturn(Stream.concat(hub, background));
+    connectionGraph = new ConnectionGraph(mongoTemplate, Runnable::run, 2000);
+    connectionGraph.load();
+  }
+
+  @Benchmark
+  public List<Suggestion> topSuggestions() {
+    return connectionGraph.suggestions(user, 20);
+  }
+
+  @Benchmark
+  public int mutualConnectionCount() {
+    return connectionGraph.mutualConnectionCount(user, stranger);
+  }
+
+  /** Incremental maintenance on accept and remove for the high degree user. */
+  @Benchmark
+  public void connectAndDisconnect() {
+    connectionGraph.connect(user, newConnection);
+    connectionGraph.disconnect(user, newConnection);
+  }
+}
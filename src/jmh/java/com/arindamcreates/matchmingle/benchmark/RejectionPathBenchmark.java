@@ -0,0 +1,126 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.arindamcreates.matchmingle.exception.DataAlreadyExistException;
+import com.arindamcreates.matchmingle.exception.ErrorResponse;
+import com.arindamcreates.matchmingle.exception.GlobalExceptionHandler;
+import com.arindamcreates.matchmingle.exception.RejectionRecorder;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.repository.ConnectionRepository;
+import com.arindamcreates.matchmingle.repository.OutboxRepository;
+import com.arindamcreates.matchmingle.repository.RelationshipStore;
+import com.arindamcreates.matchmingle.repository.RelationshipStore.SendOutcome;
+import com.arindamcreates.matchmingle.repository.UserProfileRepository;
+import com.arindamcreates.matchmingle.repository.UserRepository;
+import com.arindamcreates.matchmingle.repository.VisibilityRequestRepository;
+import com.arindamcreates.matchmingle.service.ProfileWriteBehind;
+import com.arindamcreates.matchmingle.service.UserActionMetrics;
+import com.arindamcreates.matchmingle.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * A duplicate connection request from the service down to the error response, with the
+ * repositories mocked out. {@link #rejectedSendRequest} takes the current path: a pre-allocated,
+ * stackless rejection mapped to 409, counted and logged through the recorder. {@link
+ * #wrappedRejection} rebuilds what the same request used to cost: a new rejection with a stack
+ * trace, wrapped into a {@link DataAccessResourceFailureException} whose stack trace is rendered
+ * for the error log. The log write itself is left out of the baseline, so the gap is a lower
+ * bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RejectionPathBenchmark {
+
+  private static final String VIEWER_EMAIL = "viewer@matchmingle.com";
+  private static final String TARGET_EMAIL = "target@matchmingle.com";
+
+  private UserService userService;
+  private GlobalExceptionHandler exceptionHandler;
+  private String targetId;
+
+  @Setup
+  public void setUp() {
+    User viewer = User.builder().id(new ObjectId()).email(VIEWER_EMAIL).build();
+    User target = User.builder().id(new ObjectId()).email(TARGET_EMAIL).build();
+    targetId = target.getId().toHexString();
+
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.findIdentityById(target.getId())).thenReturn(Optional.of(target));
+    when(userRepository.findIdentityByEmail(VIEWER_EMAIL)).thenReturn(Optional.of(viewer));
+    RelationshipStore relationshipStore = mock(RelationshipStore.class);
+    when(relationshipStore.sendRequest(any(), any())).thenReturn(SendOutcome.REQUEST_ALREADY_SENT);
+
+    userService =
+        new UserService(
+            BenchmarkFixtures.authenticatedAs(VIEWER_EMAIL),
+            mock(ConnectionRepository.class),
+            userRepository,
+            relationshipStore,
+            mock(UserProfileRepository.class),
+            mock(VisibilityRequestRepository.class),
+            mock(MongoTemplate.class),
+            new ObjectMapper(),
+            mock(OutboxRepository.class),
+            TransactionOperations.withoutTransaction(),
+            mock(ProfileWriteBehind.class),
+            new UserActionMetrics(new SimpleMeterRegistry()));
+    exceptionHandler =
+        new GlobalExceptionHandler(
+            new RejectionRecorder(Duration.ofSeconds(10), new SimpleMeterRegistry()));
+  }
+
+  @Benchmark
+  public ErrorResponse rejectedSendRequest() {
+    try {
+      userService.sendRequest(targetId);
+      throw new IllegalStateException("Duplicate request was accepted");
+    } catch (DataAlreadyExistException ex) {
+      return exceptionHandler.handleDataAlreadyExistException(ex);
+    }
+  }
+
+  @Benchmark
+  public ErrorResponse wrappedRejection() {
+    try {
+      userService.sendRequest(targetId);
+      throw new IllegalStateException("Duplicate request was accepted");
+    } catch (DataAlreadyExistException ex) {
+      DataAccessResourceFailureException wrapped =
+          new DataAccessResourceFailureException(
+              "Error occurred while processing request action: SEND",
+              new IllegalStateException(ex.getMessage()));
+      int renderedFrames =
+          wrapped.getStackTrace().length + wrapped.getCause().getStackTrace().length;
+      return new ErrorResponse(
+          HttpStatus.INTERNAL_SERVER_ERROR.value(), wrapped.getMessage() + renderedFrames);
+    }
+  }
+}
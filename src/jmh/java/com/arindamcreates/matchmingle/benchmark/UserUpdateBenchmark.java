@@ -0,0 +1,43 @@
+package com.arindamcreates.matchmingle.benchmark;
+
+import com.arindamcreates.matchmingle.dto.UserRequest;
+import com.arindamcreates.matchmingle.model.User;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Copying a user through its builder while applying a profile update. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserUpdateBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  private int connections;
+
+  private User user;
+  private UserRequest userRequest;
+
+  @Setup
+  public void setUp() {
+    user = BenchmarkFixtures.userWithConnections("bench@matchmingle.com", connections);
+    userRequest = BenchmarkFixtures.userRequest();
+  }
+
+  @Benchmark
+  public User updateUserFrom() {
+    return User.updateUserFrom(user, userRequest);
+  }
+}
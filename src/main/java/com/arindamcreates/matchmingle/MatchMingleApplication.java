@@ -2,11 +2,13 @@ package com.arindamcreates.matchmingle;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
-import org.springframework.web.client.RestTemplate;
 
+/**
+ * With {@code spring.threads.virtual.enabled=true} Tomcat request handling, the application task
+ * executor and the {@code @EnableScheduling} scheduler all run on virtual threads.
+ */
 @SpringBootApplication
 @EnableTransactionManagement
 @EnableScheduling
@@ -16,10 +18,4 @@ public class MatchMingleApplication {
         SpringApplication.run(MatchMingleApplication.class, args);
     }
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-
-    }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package com.arindamcreates.matchmingle.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Outbound HTTP for the Google sign-in flow. Calls go through one shared JDK HttpClient, which
+ * pools and keeps alive HTTP/2 and HTTP/1.1 connections, with connect and read timeouts. Calls to
+ * the token endpoint are guarded by a circuit breaker, and ID tokens are verified locally against
+ * Google's signing keys, which are cached and refetched when they expire or an unknown key id
+ * shows up. Only tokens whose {@code email_verified} claim is true are accepted. Request timings
+ * are recorded as {@code http.client.requests} by the {@link RestTemplateBuilder}.
+ */
+@Configuration
+public class GoogleOAuthConfig {
+
+  public static final String GOOGLE_OAUTH_CIRCUIT_BREAKER = "googleOAuth";
+
+  private static final Set<String> GOOGLE_ISSUERS =
+      Set.of("accounts.google.com", "https://accounts.google.com");
+  private static final String EMAIL_VERIFIED = "email_verified";
+
+  @Bean
+  public RestTemplate restTemplate(
+      RestTemplateBuilder restTemplateBuilder,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+      @Value("${matchmingle.google.connect-timeout:PT2S}") Duration connectTimeout,
+      @Value("${matchmingle.google.read-timeout:PT5S}") Duration readTimeout) {
+    HttpClient.Builder httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NORMAL);
+    if (virtualThreadsEnabled) {
+      httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+    JdkClientHttpRequestFactory requestFactory =
+        new JdkClientHttpRequestFactory(httpClient.build());
+    requestFactory.setReadTimeout(readTimeout);
+    return restTemplateBuilder.requestFactory(() -> requestFactory).build();
+  }
+
+  @Bean
+  public CircuitBreakerRegistry circuitBreakerRegistry(
+      MeterRegistry meterRegistry,
+      @Value("${matchmingle.google.circuit-breaker.failure-rate-threshold:50}")
+          float failureRateThreshold,
+      @Value("${matchmingle.google.circuit-breaker.open-duration:PT30S}") Duration openDuration) {
+    CircuitBreakerConfig config =
+        CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRateThreshold)
+            .slidingWindowSize(20)
+            .minimumNumberOfCalls(10)
+            .waitDurationInOpenState(openDuration)
+            // Only upstream failures count, a rejected authorization code is the caller's error.
+            .recordExceptions(ResourceAccessException.class, HttpServerErrorException.class)
+            .build();
+    CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+    TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+    return registry;
+  }
+
+  @Bean
+  public CircuitBreaker googleOAuthCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+    return circuitBreakerRegistry.circuitBreaker(GOOGLE_OAUTH_CIRCUIT_BREAKER);
+  }
+
+  @Bean
+  public JwtDecoder googleIdTokenDecoder(
+      RestTemplate restTemplate,
+      @Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId,
+      @Value("${matchmingle.google.jwk-set-uri:https://www.googleapis.com/oauth2/v3/certs}")
+          String jwkSetUri,
+      @Value("${matchmingle.google.jwk-set-ttl:PT1H}") Duration jwkSetTtl) {
+    CaffeineCache jwkSetCache =
+        new CaffeineCache(
+            "googleJwkSet", Caffeine.newBuilder().expireAfterWrite(jwkSetTtl).build());
+    NimbusJwtDecoder decoder =
+        NimbusJwtDecoder.withJwkSetUri(jwkSetUri)
+            .restOperations(restTemplate)
+            .cache(jwkSetCache)
+            .build();
+    decoder.setJwtValidator(
+        new DelegatingOAuth2TokenValidator<>(
+            JwtValidators.createDefault(),
+            new JwtClaimValidator<>(
+                JwtClaimNames.ISS, issuer -> GOOGLE_ISSUERS.contains(String.valueOf(issuer))),
+            new JwtClaimValidator<List<String>>(
+                JwtClaimNames.AUD, audience -> audience != null && audience.contains(clientId)),
+            // The email becomes the account key, so an unverified address must not sign in.
+            new JwtClaimValidator<Object>(EMAIL_VERIFIED, Boolean.TRUE::equals)));
+    return decoder;
+  }
+}
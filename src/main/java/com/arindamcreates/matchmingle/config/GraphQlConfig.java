@@ -0,0 +1,85 @@
+package com.arindamcreates.matchmingle.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Limits and caching for the GraphQL API. Depth and complexity are checked before execution, and
+ * a list field counts once per requested item, so a deep query over a large page is rejected
+ * instead of fanning out. Clients can send the SHA-256 of a query instead of its text (Apollo
+ * automatic persisted queries); parsed and validated documents are kept in a bounded cache. Timings
+ * per data fetcher come from Boot's GraphQL observations as the {@code graphql.datafetcher} timer.
+ */
+@Configuration
+public class GraphQlConfig {
+
+  private static final String PAGE_SIZE_ARGUMENT = "first";
+
+  @Bean
+  public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+      @Value("${matchmingle.graphql.max-depth:6}") int maxDepth) {
+    return new MaxQueryDepthInstrumentation(maxDepth);
+  }
+
+  @Bean
+  public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+      @Value("${matchmingle.graphql.max-complexity:5000}") int maxComplexity) {
+    return new MaxQueryComplexityInstrumentation(
+        maxComplexity,
+        (environment, childComplexity) ->
+            environment.getArguments().get(PAGE_SIZE_ARGUMENT) instanceof Integer pageSize
+                ? 1 + childComplexity * Math.max(pageSize, 1)
+                : 1 + childComplexity);
+  }
+
+  @Bean
+  public GraphQlSourceBuilderCustomizer persistedQueryCustomizer(
+      @Value("${matchmingle.graphql.persisted-queries.max-size:1000}") long maxSize) {
+    PersistedQueryCache cache = new BoundedPersistedQueryCache(maxSize);
+    return builder ->
+        builder.configureGraphQl(
+            graphQl -> graphQl.preparsedDocumentProvider(new ApolloPersistedQuerySupport(cache)));
+  }
+
+  /** Parsed documents by query hash. A miss without the query text asks the client to send it. */
+  static class BoundedPersistedQueryCache implements PersistedQueryCache {
+
+    private final Cache<Object, PreparsedDocumentEntry> documents;
+
+    BoundedPersistedQueryCache(long maxSize) {
+      this.documents = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(
+        Object persistedQueryId, ExecutionInput executionInput, PersistedQueryCacheMiss onCacheMiss)
+        throws PersistedQueryNotFound {
+      PreparsedDocumentEntry document = documents.getIfPresent(persistedQueryId);
+      if (document != null) {
+        return CompletableFuture.completedFuture(document);
+      }
+      String query = executionInput.getQuery();
+      if (!StringUtils.hasText(query)
+          || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+        throw new PersistedQueryNotFound(persistedQueryId);
+      }
+      return CompletableFuture.completedFuture(
+          documents.get(persistedQueryId, id -> onCacheMiss.apply(query)));
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.arindamcreates.matchmingle.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Metrics are scraped from {@code /actuator/prometheus}, which like every actuator endpoint but
+ * health needs an ADMIN token. Every {@code matchmingle.*} timer publishes a percentile histogram,
+ * see {@code metrics.properties}. Meters are registered once and kept by their owners, so
+ * recording on a hot path is a clock read and a lock-free histogram update, with no tag or id
+ * allocation.
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {}
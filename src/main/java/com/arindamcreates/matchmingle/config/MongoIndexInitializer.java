@@ -0,0 +1,227 @@
+package com.arindamcreates.matchmingle.config;
+
+import com.arindamcreates.matchmingle.model.DomainEvent;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.model.VisibilityRequest;
+import com.arindamcreates.matchmingle.repository.ProfileSearchRepository;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies and creates the indexes of every document type at startup. Spring Boot does not create
+ * annotated indexes on its own, and an index whose keys name fields a document doesn't have
+ * (as {@code request_lookup_idx} once did) silently never serves a query, so such definitions are
+ * reported, or fail startup when {@code matchmingle.mongo.index-verification=fail}.
+ */
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class MongoIndexInitializer implements ApplicationRunner {
+
+  private static final String STALE_VISIBILITY_INDEX = "request_lookup_idx";
+  private static final int BSON_STRING = 2;
+
+  private final MongoTemplate mongoTemplate;
+  private final MongoMappingContext mappingContext;
+
+  @Value("${matchmingle.mongo.index-verification:fail}")
+  private String indexVerification;
+
+  @Value("${matchmingle.mongo.ensure-indexes:true}")
+  private boolean ensureIndexes;
+
+  @Value("${matchmingle.visibility-requests.pending-ttl:P30D}")
+  private Duration pendingVisibilityRequestTtl;
+
+  @Value("${matchmingle.outbox.retention:P7D}")
+  private Duration outboxRetention;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    IndexResolver indexResolver = IndexResolver.create(mappingContext);
+    List<String> mismatches = new ArrayList<>();
+    for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+      if (!entity.isAnnotationPresent(Document.class)) {
+        continue;
+      }
+      Set<String> fieldNames = fieldNamesOf(entity);
+      for (IndexDefinition index : indexResolver.resolveIndexFor(entity.getTypeInformation())) {
+        mismatches.addAll(verify(entity, index, fieldNames));
+        if (ensureIndexes) {
+          ensureIndex(mongoTemplate.indexOps(entity.getType()), index);
+        }
+      }
+    }
+    if (!mismatches.isEmpty()) {
+      if ("fail".equalsIgnoreCase(indexVerification)) {
+        throw new IllegalStateException("Declared indexes reference unknown fields: " + mismatches);
+      }
+      mismatches.forEach(
+          mismatch -> log.warn("Declared index references unknown field {}", mismatch));
+    }
+    if (ensureIndexes) {
+      ensureVisibilityRequestIndexes();
+      ensureUserSearchIndexes();
+      ensureOutboxIndexes();
+      ensureUserIdentityIndexes();
+    }
+  }
+
+  /**
+   * Unique email and phone, which sign-in's upsert and profile edits rely on. Partial on the field
+   * being a string, so users without a phone are not indexed. Existing duplicates make the build
+   * fail; they are removed by {@link
+   * com.arindamcreates.matchmingle.service.UserIdentityDedupMigration}, which runs before this.
+   */
+  private void ensureUserIdentityIndexes() {
+    IndexOperations indexOps = mongoTemplate.indexOps(User.class);
+    for (String field : List.of("email", "phone")) {
+      Index index =
+          new Index()
+              .on(field, Sort.Direction.ASC)
+              .named(field + "_unique_idx")
+              .unique()
+              .partial(PartialIndexFilter.of(Criteria.where(field).type(BSON_STRING)));
+      try {
+        indexOps.ensureIndex(index);
+      } catch (DataAccessException ex) {
+        if ("fail".equalsIgnoreCase(indexVerification)) {
+          throw new IllegalStateException(
+              "Could not build " + field + "_unique_idx, users share a " + field, ex);
+        }
+        log.error("Could not build {}_unique_idx: {}", field, ex.getMessage());
+      }
+    }
+  }
+
+  /** Relayed events stay available for replay for {@code matchmingle.outbox.retention}. */
+  private void ensureOutboxIndexes() {
+    ensureIndex(
+        mongoTemplate.indexOps(DomainEvent.class),
+        new Index()
+            .on("occurredAt", Sort.Direction.ASC)
+            .named("outbox_retention_ttl_idx")
+            .expire(outboxRetention));
+  }
+
+  /**
+   * Profile search indexes. Each is partial on {@link ProfileSearchRepository#searchable()}, so
+   * locked users and users without details cost no index space, and ends in {@code _id} so a
+   * filtered page is read in cursor order without a sort. MongoDB allows one text index per
+   * collection, over {@code tagLine} and {@code summary}.
+   */
+  private void ensureUserSearchIndexes() {
+    IndexOperations indexOps = mongoTemplate.indexOps(User.class);
+    PartialIndexFilter searchable = PartialIndexFilter.of(ProfileSearchRepository.searchable());
+    ensureIndex(
+        indexOps,
+        new Index()
+            .on("location", Sort.Direction.ASC)
+            .on("gender", Sort.Direction.ASC)
+            .on("_id", Sort.Direction.ASC)
+            .named("location_gender_search_idx")
+            .partial(searchable));
+    ensureIndex(
+        indexOps,
+        new Index()
+            .on("location", Sort.Direction.ASC)
+            .on("_id", Sort.Direction.ASC)
+            .named("location_search_idx")
+            .partial(searchable));
+    ensureIndex(
+        indexOps,
+        new Index()
+            .on("gender", Sort.Direction.ASC)
+            .on("_id", Sort.Direction.ASC)
+            .named("gender_search_idx")
+            .partial(searchable));
+    ensureIndex(
+        indexOps,
+        TextIndexDefinition.builder()
+            .onField("tagLine")
+            .onField("summary")
+            .named("profile_text_idx")
+            .partial(searchable)
+            .build());
+  }
+
+  /**
+   * Pending requests that were never answered expire after {@code
+   * matchmingle.visibility-requests.pending-ttl}; answered ones are kept.
+   */
+  private void ensureVisibilityRequestIndexes() {
+    IndexOperations indexOps = mongoTemplate.indexOps(VisibilityRequest.class);
+    boolean staleIndexPresent =
+        indexOps.getIndexInfo().stream()
+            .anyMatch(info -> STALE_VISIBILITY_INDEX.equals(info.getName()));
+    if (staleIndexPresent) {
+      indexOps.dropIndex(STALE_VISIBILITY_INDEX);
+      log.info("Dropped stale index {} on visibility_requests", STALE_VISIBILITY_INDEX);
+    }
+    ensureIndex(
+        indexOps,
+        new Index()
+            .on("requestTime", Sort.Direction.ASC)
+            .named("pending_request_ttl_idx")
+            .expire(pendingVisibilityRequestTtl)
+            .partial(
+                PartialIndexFilter.of(
+                    Criteria.where("status").is(VisibilityRequest.RequestStatus.PENDING.name()))));
+  }
+
+  private void ensureIndex(IndexOperations indexOps, IndexDefinition index) {
+    try {
+      indexOps.ensureIndex(index);
+    } catch (DataAccessException ex) {
+      // e.g. an index with the same name but different options already exists
+      log.warn("Could not ensure index {}: {}", index.getIndexOptions(), ex.getMessage());
+    }
+  }
+
+  private static List<String> verify(
+      MongoPersistentEntity<?> entity, IndexDefinition index, Set<String> fieldNames) {
+    List<String> mismatches = new ArrayList<>();
+    for (String key : index.getIndexKeys().keySet()) {
+      String rootField = key.split("\\.")[0];
+      if (!key.startsWith("$") && !fieldNames.contains(rootField)) {
+        mismatches.add(entity.getCollection() + "." + key);
+      }
+    }
+    return mismatches;
+  }
+
+  private static Set<String> fieldNamesOf(MongoPersistentEntity<?> entity) {
+    Set<String> fieldNames = new HashSet<>();
+    fieldNames.add("_id");
+    entity.doWithProperties(
+        (PropertyHandler<MongoPersistentProperty>)
+            property -> fieldNames.add(property.getFieldName()));
+    return fieldNames;
+  }
+}
@@ -0,0 +1,24 @@
+package com.arindamcreates.matchmingle.config;
+
+import com.arindamcreates.matchmingle.service.SlowQueryMonitor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adds the {@link SlowQueryMonitor} to the Mongo client's command listeners, next to the one Boot
+ * registers for the {@code mongodb.driver.commands} timer.
+ */
+@Configuration
+public class MongoMonitoringConfig {
+
+  @Bean
+  @ConditionalOnProperty(
+      name = "matchmingle.mongo.slow-query.enabled",
+      havingValue = "true",
+      matchIfMissing = true)
+  public MongoClientSettingsBuilderCustomizer slowQueryListener(SlowQueryMonitor slowQueryMonitor) {
+    return builder -> builder.addCommandListener(slowQueryMonitor);
+  }
+}
@@ -0,0 +1,97 @@
+package com.arindamcreates.matchmingle.config;
+
+import com.arindamcreates.matchmingle.exception.Rejections;
+import com.mongodb.MongoException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Multi-document transactions for relationship changes and their outbox events. They need a
+ * replica set or a sharded cluster, so they are opt-in with {@code
+ * matchmingle.mongo.transactions.enabled=true}; against a standalone mongod the same code runs
+ * without a transaction.
+ */
+@Slf4j
+@Configuration
+public class MongoTransactionConfig {
+
+  @Bean
+  @ConditionalOnProperty(
+      name = "matchmingle.mongo.transactions.enabled",
+      havingValue = "true")
+  public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+    return new MongoTransactionManager(databaseFactory);
+  }
+
+  @Bean
+  public TransactionOperations transactionOperations(
+      ObjectProvider<MongoTransactionManager> transactionManager,
+      @Value("${matchmingle.mongo.transactions.max-attempts:5}") int maxAttempts,
+      @Value("${matchmingle.mongo.transactions.retry-backoff:PT0.01S}") Duration retryBackoff) {
+    MongoTransactionManager manager = transactionManager.getIfAvailable();
+    if (manager == null) {
+      log.warn("Mongo transactions are disabled, relationship changes are not atomic");
+      return TransactionOperations.withoutTransaction();
+    }
+    return new RetryingTransactionOperations(
+        new TransactionTemplate(manager), maxAttempts, retryBackoff);
+  }
+
+  /**
+   * Runs the whole transaction again when the server labels its failure as transient, after a
+   * random delay of up to the backoff doubled per attempt, so conflicting writers spread out
+   * instead of colliding again. Once the attempts run out the request is rejected with a 409.
+   */
+  @RequiredArgsConstructor
+  static class RetryingTransactionOperations implements TransactionOperations {
+
+    private static final int MAX_BACKOFF_DOUBLINGS = 6;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    @Override
+    public <T> T execute(TransactionCallback<T> action) {
+      for (int attempt = 1; ; attempt++) {
+        try {
+          return transactionTemplate.execute(action);
+        } catch (DataAccessException ex) {
+          if (!isTransient(ex)) {
+            throw ex;
+          }
+          if (attempt >= maxAttempts) {
+            log.warn("Transaction still conflicting after {} attempts", attempt);
+            throw Rejections.TRANSACTION_CONFLICT;
+          }
+          log.debug("Retrying transaction after transient error, attempt {}", attempt);
+          backOff(attempt);
+        }
+      }
+    }
+
+    private void backOff(int attempt) {
+      long bound = retryBackoff.toNanos() << Math.min(attempt - 1, MAX_BACKOFF_DOUBLINGS);
+      LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    private static boolean isTransient(DataAccessException ex) {
+      return ex.getMostSpecificCause() instanceof MongoException mongoException
+          && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.arindamcreates.matchmingle.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Times every method of every repository as {@code
+ * matchmingle.repository.invocations{repository,method}}: Spring Data repositories get an extra
+ * advice on their existing proxy, the {@code MongoTemplate} based ones are proxied. The timer of a
+ * method is created on its first call and looked up by {@link Method} afterwards. While a method
+ * runs, {@link #currentRepositoryMethod()} names it, so Mongo commands can be traced back to it.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+  private static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    Class<?> targetClass = AopUtils.getTargetClass(bean);
+    String repository;
+    if (bean instanceof org.springframework.data.repository.Repository<?, ?>
+        && bean instanceof Advised advised) {
+      repository = advised.getProxiedInterfaces()[0].getSimpleName();
+    } else if (AnnotatedElementUtils.hasAnnotation(targetClass, Repository.class)) {
+      repository = targetClass.getSimpleName();
+    } else {
+      return bean;
+    }
+    // Usually already proxied for exception translation, otherwise proxied here
+    if (bean instanceof Advised advised && !advised.isFrozen()) {
+      advised.addAdvice(new TimingInterceptor(repository));
+      return bean;
+    }
+    ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice(new TimingInterceptor(repository));
+    return proxyFactory.getProxy(bean.getClass().getClassLoader());
+  }
+
+  /** The innermost repository method running on this thread, as {@code Repository.method}. */
+  public static String currentRepositoryMethod() {
+    return CURRENT_METHOD.get();
+  }
+
+  private class TimingInterceptor implements MethodInterceptor {
+
+    private final String repository;
+    private final Map<Method, MethodTiming> timings = new ConcurrentHashMap<>();
+
+    private TimingInterceptor(String repository) {
+      this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+      Method method = invocation.getMethod();
+      if (method.getDeclaringClass() == Object.class) {
+        return invocation.proceed();
+      }
+      MethodTiming timing = timings.get(method);
+      if (timing == null) {
+        timing = timings.computeIfAbsent(method, this::register);
+      }
+      String caller = CURRENT_METHOD.get();
+      CURRENT_METHOD.set(timing.name());
+      long start = System.nanoTime();
+      try {
+        return invocation.proceed();
+      } finally {
+        timing.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        CURRENT_METHOD.set(caller);
+      }
+    }
+
+    private MethodTiming register(Method method) {
+      Timer timer =
+          Timer.builder("matchmingle.repository.invocations")
+              .tag("repository", repository)
+              .tag("method", method.getName())
+              .register(meterRegistry.getObject());
+      return new MethodTiming(timer, repository + "." + method.getName());
+    }
+  }
+
+  private record MethodTiming(Timer timer, String name) {}
+}
@@ -1,6 +1,7 @@
 package com.arindamcreates.matchmingle.config;
 
 import com.arindamcreates.matchmingle.Filter.JwtFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,10 +25,20 @@ public class SecurityConfig {
         .authorizeHttpRequests(
             authorize ->
                 authorize
+                    // Event streams complete on an async dispatch after the request was
+                    // authenticated.
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR)
+                    .permitAll()
                     .requestMatchers("/v1/user/**")
                     .authenticated()
+                    .requestMatchers("/graphql")
+                    .authenticated()
                     .requestMatchers("/v1/admin/**")
                     .hasRole("ADMIN")
+                    .requestMatchers("/actuator/health")
+                    .permitAll()
+                    .requestMatchers("/actuator/**")
+                    .hasRole("ADMIN")
                     .anyRequest()
                     .permitAll())
         .sessionManagement(
@@ -20,4 +20,6 @@ public class Constants {
   public static final String CANNOT_SELF_UNLOCK = "Cannot unlock self account";
   public static final String CANNOT_SELF_DELETE = "Cannot delete self account";
   public static final String CANNOT_SAVE_USER = "Error occurred while saving user data";
+  public static final String DELETION_JOB_NOT_FOUND = "No deletion job exists for the given Id";
+  public static final String DELETION_JOB_NOT_FAILED = "Only failed deletion jobs can be resumed";
 }
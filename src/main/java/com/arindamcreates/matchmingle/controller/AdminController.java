@@ -1,15 +1,25 @@
 package com.arindamcreates.matchmingle.controller;
 
 import com.arindamcreates.matchmingle.dto.IdRequest;
+import com.arindamcreates.matchmingle.dto.RelationshipPageResponse;
+import com.arindamcreates.matchmingle.dto.UserDeletionJobResponse;
 import com.arindamcreates.matchmingle.dto.UserResponseForAdmin;
+import com.arindamcreates.matchmingle.model.DomainEvent;
+import com.arindamcreates.matchmingle.model.RelationshipType;
 import com.arindamcreates.matchmingle.service.AdminService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -39,13 +49,77 @@ public class AdminController {
   @GetMapping("/get-user")
   @ResponseStatus(HttpStatus.OK)
   public UserResponseForAdmin getUserByEmail(
-      @RequestParam @Email(message = "Invalid email format") String email) {
-    return adminService.findUserByEmail(email);
+      @RequestParam @Email(message = "Invalid email format") String email,
+      @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int pageSize) {
+    return adminService.findUserByEmail(email, pageSize);
+  }
+
+  @GetMapping("/get-user-relationships")
+  @ResponseStatus(HttpStatus.OK)
+  public RelationshipPageResponse getUserRelationships(
+      @RequestParam @Email(message = "Invalid email format") String email,
+      @RequestParam RelationshipType type,
+      @RequestParam(required = false)
+          @Pattern(regexp = "^[0-9a-f]{24}$", message = "Invalid cursor format")
+          String after,
+      @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int pageSize) {
+    return adminService.findUserRelationships(email, type, after, pageSize);
+  }
+
+  @GetMapping("/principal-cache-stats")
+  @ResponseStatus(HttpStatus.OK)
+  public Map<String, Object> getPrincipalCacheStats() {
+    return adminService.getPrincipalCacheStats();
+  }
+
+  @GetMapping("/virtual-thread-pinning")
+  @ResponseStatus(HttpStatus.OK)
+  public Map<String, Object> getVirtualThreadPinningStats() {
+    return adminService.getVirtualThreadPinningStats();
+  }
+
+  /** The slowest Mongo query shapes seen since startup, with parameters redacted. */
+  @GetMapping("/slow-queries")
+  @ResponseStatus(HttpStatus.OK)
+  public Map<String, Object> getSlowQueryStats(
+      @RequestParam(defaultValue = "20") @Min(1) @Max(500) int limit) {
+    return adminService.getSlowQueryStats(limit);
+  }
+
+  /** Outbox replay for consumers catching up, in sequence order. */
+  @GetMapping("/domain-events")
+  @ResponseStatus(HttpStatus.OK)
+  public List<DomainEvent> replayDomainEvents(
+      @RequestParam(defaultValue = "0") @Min(0) long after,
+      @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+    return adminService.replayDomainEvents(after, limit);
+  }
+
+  @GetMapping("/domain-event-relay")
+  @ResponseStatus(HttpStatus.OK)
+  public Map<String, Object> getDomainEventRelayStats() {
+    return adminService.getDomainEventRelayStats();
   }
 
   @DeleteMapping("/delete-user")
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public UserDeletionJobResponse deleteUser(@RequestBody @Valid IdRequest idRequest) {
+    return adminService.deleteUserWithBatchProcessing(idRequest.getId());
+  }
+
+  @GetMapping("/delete-user/{jobId}")
   @ResponseStatus(HttpStatus.OK)
-  public void deleteUser(@RequestBody @Valid IdRequest idRequest) {
-    adminService.deleteUserWithBatchProcessing(idRequest.getId());
+  public UserDeletionJobResponse getUserDeletionJob(
+      @PathVariable @Pattern(regexp = "^[0-9a-f]{24}$", message = "Invalid ID format")
+          String jobId) {
+    return adminService.getUserDeletionJob(jobId);
+  }
+
+  @PostMapping("/delete-user/{jobId}/resume")
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public UserDeletionJobResponse resumeUserDeletionJob(
+      @PathVariable @Pattern(regexp = "^[0-9a-f]{24}$", message = "Invalid ID format")
+          String jobId) {
+    return adminService.resumeUserDeletionJob(jobId);
   }
 }
@@ -1,13 +1,28 @@
 package com.arindamcreates.matchmingle.controller;
 
 import com.arindamcreates.matchmingle.dto.*;
+import com.arindamcreates.matchmingle.model.RelationshipType;
 import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.service.NearbyUserService;
+import com.arindamcreates.matchmingle.service.ProfileSearchService;
+import com.arindamcreates.matchmingle.service.RecommendationService;
+import com.arindamcreates.matchmingle.service.UserEventPushService;
 import com.arindamcreates.matchmingle.service.UserService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @AllArgsConstructor
@@ -17,9 +32,17 @@ public class UserController {
 
   private UserService userService;
 
+  private RecommendationService recommendationService;
+
+  private ProfileSearchService profileSearchService;
+
+  private NearbyUserService nearbyUserService;
+
+  private UserEventPushService userEventPushService;
+
   @PostMapping("/addDetails")
   @ResponseStatus(HttpStatus.OK)
-  public User addUserDetails(@RequestBody @Valid UserRequest userRequest) {
+  public UserResponse addUserDetails(@RequestBody @Valid UserRequest userRequest) {
     return userService.addUserDetails(userRequest);
   }
 
@@ -29,6 +52,82 @@ public class UserController {
     return userService.findUserById(id);
   }
 
+  @GetMapping(value = "/connections", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> getConnections(
+      @RequestParam(required = false)
+          @Pattern(regexp = "^[0-9a-f]{24}$", message = "Invalid cursor format")
+          String after,
+      @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int limit) {
+    return ResponseEntity.ok(
+        userService.streamRelationships(RelationshipType.CONNECTION, after, limit));
+  }
+
+  @GetMapping(value = "/incoming-requests", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> getIncomingRequests(
+      @RequestParam(required = false)
+          @Pattern(regexp = "^[0-9a-f]{24}$", message = "Invalid cursor format")
+          String after,
+      @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int limit) {
+    return ResponseEntity.ok(
+        userService.streamRelationships(RelationshipType.INCOMING_REQUEST, after, limit));
+  }
+
+  @GetMapping(value = "/outgoing-requests", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> getOutgoingRequests(
+      @RequestParam(required = false)
+          @Pattern(regexp = "^[0-9a-f]{24}$", message = "Invalid cursor format")
+          String after,
+      @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int limit) {
+    return ResponseEntity.ok(
+        userService.streamRelationships(RelationshipType.OUTGOING_REQUEST, after, limit));
+  }
+
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamEvents(
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+    return userEventPushService.subscribe(lastEventId);
+  }
+
+  @GetMapping("/recommendations")
+  @ResponseStatus(HttpStatus.OK)
+  public List<Recommendation> getRecommendations(
+      @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+    return recommendationService.recommend(limit);
+  }
+
+  @GetMapping("/mutual-connections")
+  @ResponseStatus(HttpStatus.OK)
+  public Map<String, Integer> getMutualConnections(
+      @RequestParam @Pattern(regexp = "^[0-9a-f]{24}$", message = "Invalid ID format") String id) {
+    return Map.of("mutualConnections", recommendationService.countMutualConnections(id));
+  }
+
+  @GetMapping("/search")
+  @ResponseStatus(HttpStatus.OK)
+  public ProfileSearchResponse searchProfiles(
+      @RequestParam(required = false) @Size(max = 100) String location,
+      @RequestParam(required = false)
+          @Pattern(regexp = "^[mMfF]$", message = "Gender must be M or F")
+          String gender,
+      @RequestParam(required = false) @Size(max = 200) String q,
+      @RequestParam(required = false)
+          @Pattern(regexp = "^([0-9.eE+-]+_)?[0-9a-f]{24}$", message = "Invalid cursor format")
+          String after,
+      @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+    return profileSearchService.search(location, gender, q, after, limit);
+  }
+
+  @GetMapping("/nearby")
+  @ResponseStatus(HttpStatus.OK)
+  public NearbyUserResponse findNearbyUsers(
+      @RequestParam(defaultValue = "25") int withinKm,
+      @RequestParam(required = false)
+          @Pattern(regexp = "^[0-9.eE+-]+_[0-9a-f]{24}$", message = "Invalid cursor format")
+          String after,
+      @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+    return nearbyUserService.findNearby(withinKm, after, limit);
+  }
+
   @PostMapping("/send-request")
   @ResponseStatus(HttpStatus.OK)
   public void sentRequest(@RequestBody @Valid IdRequest id) {
@@ -47,6 +146,24 @@ public class UserController {
     userService.denyRequest(id.getId());
   }
 
+  @PostMapping("/send-requests")
+  @ResponseStatus(HttpStatus.OK)
+  public List<BatchItemResult> sendRequests(@RequestBody @Valid BatchIdRequest request) {
+    return userService.sendRequests(request.getIds());
+  }
+
+  @PostMapping("/accept-requests")
+  @ResponseStatus(HttpStatus.OK)
+  public List<BatchItemResult> acceptRequests(@RequestBody @Valid BatchIdRequest request) {
+    return userService.acceptRequests(request.getIds());
+  }
+
+  @PostMapping("/deny-requests")
+  @ResponseStatus(HttpStatus.OK)
+  public List<BatchItemResult> denyRequests(@RequestBody @Valid BatchIdRequest request) {
+    return userService.denyRequests(request.getIds());
+  }
+
   @PostMapping("/remove-connection")
   @ResponseStatus(HttpStatus.OK)
   public void removeConnection(@RequestBody @Valid IdRequest id) {
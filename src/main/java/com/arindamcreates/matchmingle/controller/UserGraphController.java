@@ -0,0 +1,87 @@
+package com.arindamcreates.matchmingle.controller;
+
+import com.arindamcreates.matchmingle.dto.ConnectionNode;
+import com.arindamcreates.matchmingle.dto.ConnectionPage;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.model.VisibilityRequest;
+import com.arindamcreates.matchmingle.service.UserGraphService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.bson.types.ObjectId;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+/**
+ * GraphQL entry points. Every {@code User} reached from a connection or a visibility request goes
+ * through one DataLoader, so peers, senders and receivers of a response level are fetched
+ * together with a single {@code $in} query.
+ */
+@Controller
+public class UserGraphController {
+
+  private final UserGraphService userGraphService;
+
+  public UserGraphController(
+      UserGraphService userGraphService, BatchLoaderRegistry batchLoaderRegistry) {
+    this.userGraphService = userGraphService;
+    batchLoaderRegistry
+        .forTypePair(ObjectId.class, User.class)
+        .registerMappedBatchLoader(
+            (ids, environment) -> Mono.fromCallable(() -> userGraphService.findProfiles(ids)));
+  }
+
+  @QueryMapping
+  public User me() {
+    return userGraphService.me();
+  }
+
+  @QueryMapping
+  public ConnectionPage myConnections(@Argument int first, @Argument String after) {
+    return userGraphService.myConnections(first, after);
+  }
+
+  @QueryMapping
+  public List<VisibilityRequest> myVisibilityRequests() {
+    return userGraphService.myVisibilityRequests();
+  }
+
+  @SchemaMapping(typeName = "User", field = "id")
+  public String userId(User user) {
+    return user.getId().toHexString();
+  }
+
+  @SchemaMapping(typeName = "Connection")
+  public CompletableFuture<User> peer(ConnectionNode connection, DataLoader<ObjectId, User> users) {
+    return users.load(connection.getPeerId());
+  }
+
+  @BatchMapping(typeName = "Connection")
+  public Map<ConnectionNode, List<VisibilityRequest>> pendingVisibilityRequests(
+      List<ConnectionNode> connections) {
+    return userGraphService.findPendingVisibilityRequests(connections);
+  }
+
+  @SchemaMapping(typeName = "VisibilityRequest", field = "id")
+  public String visibilityRequestId(VisibilityRequest request) {
+    return request.getId().toHexString();
+  }
+
+  @SchemaMapping(typeName = "VisibilityRequest")
+  public CompletableFuture<User> sender(
+      VisibilityRequest request, DataLoader<ObjectId, User> users) {
+    return users.load(request.getSender());
+  }
+
+  @SchemaMapping(typeName = "VisibilityRequest")
+  public CompletableFuture<User> receiver(
+      VisibilityRequest request, DataLoader<ObjectId, User> users) {
+    return users.load(request.getReceiver());
+  }
+}
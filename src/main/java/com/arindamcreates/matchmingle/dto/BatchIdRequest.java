@@ -0,0 +1,16 @@
+package com.arindamcreates.matchmingle.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BatchIdRequest {
+    @NotEmpty
+    @Size(max = 500, message = "At most 500 ids can be processed per request")
+    private List<@Pattern(regexp = "^[0-9a-f]{24}$", message = "Invalid ID format") String> ids;
+}
@@ -0,0 +1,34 @@
+package com.arindamcreates.matchmingle.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+
+    private String id;
+
+    private Status status;
+
+    private String message;
+
+    public static BatchItemResult success(String id) {
+        return new BatchItemResult(id, Status.SUCCESS, null);
+    }
+
+    public static BatchItemResult failure(String id, Status status, String message) {
+        return new BatchItemResult(id, status, message);
+    }
+
+    public enum Status {
+        SUCCESS,
+        NOT_FOUND,
+        CONFLICT,
+        REJECTED
+    }
+}
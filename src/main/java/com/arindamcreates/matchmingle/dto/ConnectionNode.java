@@ -0,0 +1,31 @@
+package com.arindamcreates.matchmingle.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+
+/** A connection as seen by one of its two users, the owner, for the GraphQL API. */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConnectionNode {
+
+    private String id;
+
+    private ObjectId ownerId;
+
+    private ObjectId peerId;
+
+    private LocalDateTime connectionTime;
+
+    private boolean emailShow;
+
+    private boolean numberShow;
+
+}
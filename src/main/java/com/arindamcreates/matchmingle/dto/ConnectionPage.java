@@ -0,0 +1,21 @@
+package com.arindamcreates.matchmingle.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConnectionPage {
+
+    private List<ConnectionNode> items;
+
+    private String nextCursor;
+
+}
@@ -0,0 +1,33 @@
+package com.arindamcreates.matchmingle.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Public profile fields of a nearby user, with the distance reduced to a bucket. */
+@Getter
+@Setter
+@NoArgsConstructor
+public class NearbyUser {
+
+    private String id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String gender;
+
+    private String imageUrl;
+
+    private String tagLine;
+
+    /** Upper bound in km of the smallest distance bucket the user falls into. */
+    private Integer withinKm;
+
+    /** Exact distance in meters, only used for ordering and the seek cursor. */
+    @JsonIgnore
+    private Double distance;
+
+}
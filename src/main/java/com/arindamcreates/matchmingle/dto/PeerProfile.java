@@ -0,0 +1,23 @@
+package com.arindamcreates.matchmingle.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Lightweight profile of a connection or request peer, as listed to the owner. */
+@Getter
+@Setter
+@NoArgsConstructor
+public class PeerProfile {
+
+    private String id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String imageUrl;
+
+    private String tagLine;
+
+}
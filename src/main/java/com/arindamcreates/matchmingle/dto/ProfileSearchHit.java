@@ -0,0 +1,32 @@
+package com.arindamcreates.matchmingle.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Public profile fields of a search result, read through a projection. */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProfileSearchHit {
+
+    private String id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String gender;
+
+    private String location;
+
+    private String imageUrl;
+
+    private String tagLine;
+
+    /** Text relevance, only set for text searches and used for the seek cursor. */
+    @JsonIgnore
+    private Double score;
+
+}
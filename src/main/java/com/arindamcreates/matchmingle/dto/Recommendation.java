@@ -0,0 +1,28 @@
+package com.arindamcreates.matchmingle.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Recommendation {
+
+    private String id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String imageUrl;
+
+    private String tagLine;
+
+    private int mutualConnections;
+
+}
@@ -0,0 +1,27 @@
+package com.arindamcreates.matchmingle.dto;
+
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RelationshipPageResponse {
+
+    private RelationshipType type;
+
+    private long totalCount;
+
+    private List<ObjectId> ids;
+
+    private String nextCursor;
+
+}
@@ -0,0 +1,50 @@
+package com.arindamcreates.matchmingle.dto;
+
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import com.arindamcreates.matchmingle.model.UserDeletionJob;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserDeletionJobResponse {
+
+    private String jobId;
+
+    private String userId;
+
+    private UserDeletionJob.Status status;
+
+    private UserDeletionJob.Phase phase;
+
+    private RelationshipType relationshipType;
+
+    private long processedReferences;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public static UserDeletionJobResponse from(UserDeletionJob job) {
+        return UserDeletionJobResponse.builder()
+                .jobId(job.getId().toHexString())
+                .userId(job.getUserId().toHexString())
+                .status(job.getStatus())
+                .phase(job.getPhase())
+                .relationshipType(job.getRelationshipType())
+                .processedReferences(job.getProcessedReferences())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+}
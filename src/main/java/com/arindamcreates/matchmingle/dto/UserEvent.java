@@ -0,0 +1,40 @@
+package com.arindamcreates.matchmingle.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A change another user made that concerns the recipient, pushed to the recipient's open event
+ * streams. The sequence is also the SSE event id, so a reconnecting client resumes from it.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserEvent {
+
+    private long sequence;
+
+    private Type type;
+
+    /** Id of the user who caused the event. */
+    private String from;
+
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        CONNECTION_REQUEST_RECEIVED,
+        CONNECTION_REQUEST_ACCEPTED,
+        CONNECTION_REMOVED,
+        EMAIL_REQUESTED,
+        PHONE_REQUESTED,
+        EMAIL_SHARED,
+        PHONE_SHARED
+    }
+
+}
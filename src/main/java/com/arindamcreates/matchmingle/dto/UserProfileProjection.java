@@ -0,0 +1,46 @@
+package com.arindamcreates.matchmingle.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Profile of a user as seen by another user, resolved server-side together with the connection
+ * between them. {@code email} is only populated when the connection allows it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserProfileProjection {
+
+    private String firstName;
+
+    private String lastName;
+
+    private String gender;
+
+    private String location;
+
+    private String email;
+
+    private String imageUrl;
+
+    private String tagLine;
+
+    private String summary;
+
+    private boolean connected;
+
+    public UserResponse toUserResponse() {
+        return UserResponse.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .location(location)
+                .gender(gender)
+                .tagLine(tagLine)
+                .summary(summary)
+                .imageUrl(imageUrl)
+                .email(email)
+                .build();
+    }
+}
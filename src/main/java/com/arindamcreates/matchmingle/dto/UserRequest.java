@@ -29,6 +29,14 @@ public class UserRequest {
 
     private String location="Location";
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
     @NotEmpty(message = "Mobile Number cannot be blank")
     @Pattern(regexp = "^[1-9][0-9]{9}$", message = "Mobile must contain 10 digits")
     private String phone;
@@ -53,4 +61,9 @@ public class UserRequest {
             message = "Summary must be between 50 and 500 characters")
     private String summary;
 
+    @AssertTrue(message = "Latitude and longitude must be provided together")
+    private boolean isCoordinatesComplete() {
+        return (latitude == null) == (longitude == null);
+    }
+
 }
\ No newline at end of file
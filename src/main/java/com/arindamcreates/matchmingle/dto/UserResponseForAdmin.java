@@ -10,8 +10,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.bson.types.ObjectId;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 @Getter
 @Setter
@@ -44,10 +43,17 @@ public class UserResponseForAdmin {
 
     private String role;
 
-    private Set<ObjectId> incomingRequests = new HashSet<>();
+    private long incomingRequestsCount;
 
-    private Set<ObjectId> outgoingRequests = new HashSet<>();
+    private long outgoingRequestsCount;
 
-    private Set<ObjectId> connections = new HashSet<>();
+    private long connectionsCount;
+
+    // First page of each relationship, the rest is served by /v1/admin/get-user-relationships
+    private List<ObjectId> incomingRequests;
+
+    private List<ObjectId> outgoingRequests;
+
+    private List<ObjectId> connections;
 
 }
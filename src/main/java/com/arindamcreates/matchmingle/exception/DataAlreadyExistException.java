@@ -1,8 +1,12 @@
 package com.arindamcreates.matchmingle.exception;
 
-public class DataAlreadyExistException extends RuntimeException {
+public class DataAlreadyExistException extends DomainException {
 
     public DataAlreadyExistException(String errorMessage){
-        super(errorMessage);
+        this(errorMessage, ErrorCode.ALREADY_EXISTS);
+    }
+
+    public DataAlreadyExistException(String errorMessage, ErrorCode errorCode){
+        super(errorMessage, errorCode);
     }
 }
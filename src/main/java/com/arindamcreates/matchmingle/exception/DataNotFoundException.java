@@ -1,9 +1,13 @@
 package com.arindamcreates.matchmingle.exception;
 
-public class DataNotFoundException extends RuntimeException{
+public class DataNotFoundException extends DomainException {
 
     public DataNotFoundException(String errorMessage){
-        super(errorMessage);
+        this(errorMessage, ErrorCode.NOT_FOUND);
+    }
+
+    public DataNotFoundException(String errorMessage, ErrorCode errorCode){
+        super(errorMessage, errorCode);
     }
 
 }
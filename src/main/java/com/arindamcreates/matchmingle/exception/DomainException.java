@@ -0,0 +1,20 @@
+package com.arindamcreates.matchmingle.exception;
+
+import lombok.Getter;
+
+/**
+ * An expected business rejection, e.g. a request that was already sent. These are part of normal
+ * traffic, so they carry no stack trace and no suppressed exceptions: creating one costs about as
+ * much as any other small object, and instances with a fixed message can be allocated once and
+ * thrown repeatedly.
+ */
+@Getter
+public abstract class DomainException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    protected DomainException(String errorMessage, ErrorCode errorCode) {
+        super(errorMessage, null, false, false);
+        this.errorCode = errorCode;
+    }
+}
@@ -0,0 +1,21 @@
+package com.arindamcreates.matchmingle.exception;
+
+/** Machine readable reason of a rejected request, returned next to the message. */
+public enum ErrorCode {
+    NOT_FOUND,
+    ALREADY_EXISTS,
+    INVALID_STATUS,
+    UNAUTHORISED,
+    USER_NOT_FOUND,
+    CONNECTION_NOT_FOUND,
+    REQUEST_NOT_FOUND,
+    CONNECTION_EXISTS,
+    REQUEST_ALREADY_SENT,
+    REQUEST_ALREADY_RECEIVED,
+    VISIBILITY_REQUEST_EXISTS,
+    EMAIL_ALREADY_SHARED,
+    PHONE_ALREADY_SHARED,
+    SELF_ACTION,
+    PROFILE_UPDATE_CONFLICT,
+    TRANSACTION_CONFLICT
+}
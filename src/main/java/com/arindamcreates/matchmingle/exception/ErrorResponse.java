@@ -10,9 +10,17 @@ public class ErrorResponse {
     private int errorCode;
     private String errorMessage;
     private List<String> errors;
+    private ErrorCode code;
 
     public ErrorResponse(int errorCode, String errorMessage) {
-        this.errorCode = errorCode;
-        this.errorMessage = errorMessage;
+        this(errorCode, errorMessage, null, null);
+    }
+
+    public ErrorResponse(int errorCode, String errorMessage, List<String> errors) {
+        this(errorCode, errorMessage, errors, null);
+    }
+
+    public ErrorResponse(int errorCode, DomainException ex) {
+        this(errorCode, ex.getMessage(), null, ex.getErrorCode());
     }
 }
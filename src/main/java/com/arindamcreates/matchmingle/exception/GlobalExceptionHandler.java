@@ -3,6 +3,7 @@ package com.arindamcreates.matchmingle.exception;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.dao.DataAccessResourceFailureException;
@@ -22,8 +23,11 @@ import java.util.Optional;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final RejectionRecorder rejectionRecorder;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
@@ -48,25 +52,22 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(DataNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleDataNotFoundException(DataNotFoundException ex) {
-        log.warn("Data not found issue occurred during invocation of API={} due to error={}",
-                getApiUri(),ex.getMessage());
-        return new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage());
+        rejectionRecorder.record(getApiUri(), ex);
+        return new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex);
     }
 
     @ExceptionHandler(DataAlreadyExistException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleDataAlreadyExistException(DataAlreadyExistException ex) {
-        log.warn("Data already existing issue occurred during invocation of API={} due to error={}",
-                getApiUri(),ex.getMessage());
-        return new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage());
+        rejectionRecorder.record(getApiUri(), ex);
+        return new ErrorResponse(HttpStatus.CONFLICT.value(), ex);
     }
 
     @ExceptionHandler(UnauthorisedException.class)
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     public ErrorResponse handleUserUnauthorisedException(UnauthorisedException ex) {
-        log.warn("User unauthorised issue occurred during invocation of API={} due to error={}",
-                getApiUri(),ex.getMessage());
-        return new ErrorResponse(HttpStatus.UNAUTHORIZED.value(), ex.getMessage());
+        rejectionRecorder.record(getApiUri(), ex);
+        return new ErrorResponse(HttpStatus.UNAUTHORIZED.value(), ex);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
@@ -85,9 +86,8 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(InvalidStatusException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleInvalidStatusException(InvalidStatusException ex) {
-        log.warn("Invalid status issue occurred during invocation of API={} due to error={}",
-                getApiUri(),ex.getMessage());
-        return new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getErrorMessage());
+        rejectionRecorder.record(getApiUri(), ex);
+        return new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex);
     }
 
     @ExceptionHandler(Exception.class)
@@ -0,0 +1,42 @@
+package com.arindamcreates.matchmingle.exception;
+
+import graphql.GraphQLError;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+/** GraphQL counterpart of {@link GlobalExceptionHandler} for the application's exceptions. */
+@Component
+@RequiredArgsConstructor
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    private static final String GRAPHQL_API = "/graphql";
+
+    private final RejectionRecorder rejectionRecorder;
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        ErrorType errorType;
+        if (ex instanceof InvalidStatusException || ex instanceof DataAlreadyExistException) {
+            errorType = ErrorType.BAD_REQUEST;
+        } else if (ex instanceof DataNotFoundException) {
+            errorType = ErrorType.NOT_FOUND;
+        } else if (ex instanceof UnauthorisedException) {
+            errorType = ErrorType.UNAUTHORIZED;
+        } else {
+            return null;
+        }
+        rejectionRecorder.record(GRAPHQL_API, (DomainException) ex);
+        return GraphQLError.newError()
+                .errorType(errorType)
+                .message(ex.getMessage())
+                .extensions(Map.of("code", ((DomainException) ex).getErrorCode().name()))
+                .path(env.getExecutionStepInfo().getPath())
+                .location(env.getField().getSourceLocation())
+                .build();
+    }
+
+}
@@ -2,11 +2,11 @@ package com.arindamcreates.matchmingle.exception;
 
 import lombok.Getter;
 
-public class InvalidStatusException extends RuntimeException{
+public class InvalidStatusException extends DomainException {
     @Getter
     private final String errorMessage;
     public InvalidStatusException(String msg) {
-        super(msg);
+        super(msg, ErrorCode.INVALID_STATUS);
         this.errorMessage = msg;
     }
 }
@@ -0,0 +1,62 @@
+package com.arindamcreates.matchmingle.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records domain rejections. Every rejection is counted as {@code matchmingle.rejections{code}},
+ * and each error code is logged at most once per interval, together with the number of
+ * rejections with that code that were not logged since, so a storm of duplicate clicks costs a
+ * counter increment per request instead of a log line.
+ */
+@Slf4j
+@Component
+public class RejectionRecorder {
+
+    private final long intervalNanos;
+    private final Map<ErrorCode, Counter> counters = new EnumMap<>(ErrorCode.class);
+    private final Map<ErrorCode, Window> windows = new EnumMap<>(ErrorCode.class);
+
+    public RejectionRecorder(
+            @Value("${matchmingle.errors.rejection-log-interval:PT10S}") Duration interval,
+            MeterRegistry meterRegistry) {
+        this.intervalNanos = interval.toNanos();
+        for (ErrorCode code : ErrorCode.values()) {
+            counters.put(code, Counter.builder("matchmingle.rejections")
+                    .description("Requests rejected with an expected business error")
+                    .tag("code", code.name())
+                    .register(meterRegistry));
+            windows.put(code, new Window());
+        }
+    }
+
+    public void record(String api, DomainException ex) {
+        counters.get(ex.getErrorCode()).increment();
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        Window window = windows.get(ex.getErrorCode());
+        long now = System.nanoTime();
+        long last = window.lastLogged.get();
+        boolean due = last == 0 || now - last >= intervalNanos;
+        if (!due || !window.lastLogged.compareAndSet(last, now)) {
+            window.suppressed.incrementAndGet();
+            return;
+        }
+        log.warn("Request rejected during invocation of API={} with code={} due to error={}"
+                        + " ({} similar rejections not logged)",
+                api, ex.getErrorCode(), ex.getMessage(), window.suppressed.getAndSet(0));
+    }
+
+    private static class Window {
+        private final AtomicLong lastLogged = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+    }
+}
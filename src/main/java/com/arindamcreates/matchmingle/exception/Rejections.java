@@ -0,0 +1,54 @@
+package com.arindamcreates.matchmingle.exception;
+
+import com.arindamcreates.matchmingle.constant.Constants;
+
+/**
+ * Pre-allocated rejections with a fixed message. They are stackless and carry no cause, so one
+ * instance can safely be thrown from any number of requests.
+ */
+public final class Rejections {
+
+    public static final DataNotFoundException USER_NOT_FOUND =
+            new DataNotFoundException(Constants.USER_NOT_FOUND, ErrorCode.USER_NOT_FOUND);
+
+    public static final DataNotFoundException CONNECTION_NOT_FOUND =
+            new DataNotFoundException(
+                    Constants.CONNECTION_NOT_FOUND, ErrorCode.CONNECTION_NOT_FOUND);
+
+    public static final DataNotFoundException REQUEST_NOT_FOUND =
+            new DataNotFoundException(Constants.REQUEST_NOT_FOUND, ErrorCode.REQUEST_NOT_FOUND);
+
+    public static final DataAlreadyExistException CONNECTION_EXISTS =
+            new DataAlreadyExistException("Connection already exists", ErrorCode.CONNECTION_EXISTS);
+
+    public static final DataAlreadyExistException REQUEST_ALREADY_SENT =
+            new DataAlreadyExistException("Request already sent", ErrorCode.REQUEST_ALREADY_SENT);
+
+    public static final DataAlreadyExistException REQUEST_ALREADY_RECEIVED =
+            new DataAlreadyExistException(
+                    "Request already received", ErrorCode.REQUEST_ALREADY_RECEIVED);
+
+    public static final DataAlreadyExistException VISIBILITY_REQUEST_EXISTS =
+            new DataAlreadyExistException(
+                    "Request already exists", ErrorCode.VISIBILITY_REQUEST_EXISTS);
+
+    public static final DataAlreadyExistException EMAIL_ALREADY_SHARED =
+            new DataAlreadyExistException("Email already shared", ErrorCode.EMAIL_ALREADY_SHARED);
+
+    public static final DataAlreadyExistException PHONE_ALREADY_SHARED =
+            new DataAlreadyExistException(
+                    "Phone number already shared", ErrorCode.PHONE_ALREADY_SHARED);
+
+    public static final DataAlreadyExistException PROFILE_UPDATE_CONFLICT =
+            new DataAlreadyExistException(
+                    "Profile was updated concurrently, please retry",
+                    ErrorCode.PROFILE_UPDATE_CONFLICT);
+
+    public static final DataAlreadyExistException TRANSACTION_CONFLICT =
+            new DataAlreadyExistException(
+                    "Conflicting changes are in progress, please retry",
+                    ErrorCode.TRANSACTION_CONFLICT);
+
+    private Rejections() {
+    }
+}
@@ -1,7 +1,7 @@
 package com.arindamcreates.matchmingle.exception;
 
-public class UnauthorisedException extends RuntimeException{
+public class UnauthorisedException extends DomainException {
     public UnauthorisedException(String errorMessage){
-        super(errorMessage);
+        super(errorMessage, ErrorCode.UNAUTHORISED);
     }
 }
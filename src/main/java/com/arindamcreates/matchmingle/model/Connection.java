@@ -8,6 +8,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -17,6 +19,11 @@ import org.springframework.data.mongodb.core.mapping.Field;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document("Connection")
+@CompoundIndexes({
+  @CompoundIndex(name = "pair_key_idx", def = "{'pairKey': 1}", unique = true, sparse = true),
+  @CompoundIndex(name = "user1_idx", def = "{'user1': 1}"),
+  @CompoundIndex(name = "user2_idx", def = "{'user2': 1}")
+})
 public class Connection {
 
   @Field("_id")
@@ -25,6 +32,7 @@ public class Connection {
 
   private ObjectId user1;
   private ObjectId user2;
+  private String pairKey; // Same for both orderings of user1 and user2
   private LocalDateTime connectionTime;
   private Boolean numberShow;
   private Boolean emailShow;
@@ -34,9 +42,17 @@ public class Connection {
     return Connection.builder()
         .user1(user1)
         .user2(user2)
+        .pairKey(pairKeyOf(user1, user2))
         .connectionTime(LocalDateTime.now())
         .emailShow(false)
         .numberShow(false)
         .build();
   }
+
+  /** Canonical key of an unordered pair of users: the smaller id first. */
+  public static String pairKeyOf(ObjectId user1, ObjectId user2) {
+    return user1.compareTo(user2) <= 0
+        ? user1.toHexString() + "_" + user2.toHexString()
+        : user2.toHexString() + "_" + user1.toHexString();
+  }
 }
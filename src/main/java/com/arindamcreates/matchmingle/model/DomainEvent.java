@@ -0,0 +1,64 @@
+package com.arindamcreates.matchmingle.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * A relationship change, written to the {@code outbox} in the same transaction as the change
+ * itself. Sequences are reserved before the change commits, so a change that depends on another
+ * one always comes later. Sequences of rolled back changes are filled with {@link Type#VOIDED}
+ * events, which carry neither actor nor subject and are never published.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document("outbox")
+@CompoundIndexes({
+  @CompoundIndex(name = "sequence_idx", def = "{'sequence': 1}", unique = true),
+  @CompoundIndex(name = "subject_sequence_idx", def = "{'subject': 1, 'sequence': 1}")
+})
+public class DomainEvent {
+
+  @Field("_id")
+  @Id
+  private ObjectId id;
+
+  private Long sequence;
+  private Type type;
+  private ObjectId actor; // User who made the change
+  private ObjectId subject; // Other user the change is about
+  private LocalDateTime occurredAt;
+
+  public static DomainEvent of(Type type, ObjectId actor, ObjectId subject) {
+    return DomainEvent.builder()
+        .type(type)
+        .actor(actor)
+        .subject(subject)
+        .occurredAt(LocalDateTime.now())
+        .build();
+  }
+
+  public enum Type {
+    CONNECTION_REQUESTED,
+    CONNECTION_ACCEPTED,
+    CONNECTION_REQUEST_DENIED,
+    CONNECTION_REMOVED,
+    EMAIL_REQUESTED,
+    PHONE_REQUESTED,
+    EMAIL_SHARED,
+    PHONE_SHARED,
+    VOIDED
+  }
+}
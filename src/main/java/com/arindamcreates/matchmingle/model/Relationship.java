@@ -0,0 +1,52 @@
+package com.arindamcreates.matchmingle.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * One directed relationship edge, used instead of the embedded arrays on {@link User} when the
+ * edge storage mode is enabled. Every relationship is stored from both sides, e.g. an outgoing
+ * request of the sender and an incoming request of the receiver. Outgoing requests also carry the
+ * pair key of {@link Connection#pairKeyOf}, unique over both directions, so two users cannot have
+ * requests pending to each other at once.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document("relationships")
+@CompoundIndexes({
+  @CompoundIndex(
+      name = "owner_type_peer_idx",
+      def = "{'owner': 1, 'type': 1, 'peer': 1}",
+      unique = true),
+  @CompoundIndex(name = "peer_type_idx", def = "{'peer': 1, 'type': 1}"),
+  @CompoundIndex(
+      name = "request_pair_idx",
+      def = "{'requestPairKey': 1}",
+      unique = true,
+      sparse = true)
+})
+public class Relationship {
+
+  @Field("_id")
+  @Id
+  private ObjectId id;
+
+  private ObjectId owner;
+  private ObjectId peer;
+  private RelationshipType type;
+  private String requestPairKey; // Only on outgoing requests
+  private LocalDateTime createdAt;
+}
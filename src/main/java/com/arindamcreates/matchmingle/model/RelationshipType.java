@@ -0,0 +1,27 @@
+package com.arindamcreates.matchmingle.model;
+
+public enum RelationshipType {
+  CONNECTION("connections"),
+  INCOMING_REQUEST("incomingRequests"),
+  OUTGOING_REQUEST("outgoingRequests");
+
+  private final String userField;
+
+  RelationshipType(String userField) {
+    this.userField = userField;
+  }
+
+  /** Name of the array on the embedded {@link User} document holding this relationship. */
+  public String getUserField() {
+    return userField;
+  }
+
+  /** The type recorded on the peer's side of the same relationship. */
+  public RelationshipType inverse() {
+    return switch (this) {
+      case CONNECTION -> CONNECTION;
+      case INCOMING_REQUEST -> OUTGOING_REQUEST;
+      case OUTGOING_REQUEST -> INCOMING_REQUEST;
+    };
+  }
+}
@@ -0,0 +1,35 @@
+package com.arindamcreates.matchmingle.model;
+
+import java.util.Date;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Tombstone of a deleted user whose issued tokens must stay rejected. Kept only for the lifetime
+ * of a token, after which Mongo expires it.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Document("revoked_principals")
+public class RevokedPrincipal {
+
+  @Field("_id")
+  @Id
+  private ObjectId id; // Id of the deleted user
+
+  private String email;
+
+  @Indexed(name = "revoked_at_ttl_idx", expireAfter = "30d")
+  private Date revokedAt;
+}
@@ -2,6 +2,9 @@ package com.arindamcreates.matchmingle.model;
 
 import com.arindamcreates.matchmingle.dto.UserRequest;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,8 +13,11 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -36,25 +42,34 @@ public class User {
   private String lastName;
   private String gender;
   private String location;
-  private String email;
-  private String phone;
+  /** Optional position for nearby discovery, absent until the user shares one. */
+  @GeoSpatialIndexed(name = "geo_point_idx", type = GeoSpatialIndexType.GEO_2DSPHERE)
+  private GeoJsonPoint geoPoint;
+  private String email; // Unique, see UserIdentityDedupMigration
+  private String phone; // Unique when present
   private String tagLine;
   private String summary;
   private String imageUrl;
   private String role;
   private Boolean userLocked;
   private Boolean userDetailsProvided;
+  private Long securityVersion;
+  private Long profileVersion; // Incremented by every profile update, absent before the first
   private Set<ObjectId> incomingRequests = new HashSet<>();
   private Set<ObjectId> outgoingRequests = new HashSet<>();
   private Set<ObjectId> connections = new HashSet<>();
 
   public static User updateUserFrom(User user, UserRequest userRequest) {
-
+    GeoJsonPoint geoPoint =
+        userRequest.getLatitude() == null
+            ? user.getGeoPoint()
+            : new GeoJsonPoint(userRequest.getLongitude(), userRequest.getLatitude());
     return user.toBuilder()
         .firstName(userRequest.getFirstName())
         .lastName(userRequest.getLastName())
         .gender(userRequest.getGender().toUpperCase())
         .location(userRequest.getLocation())
+        .geoPoint(geoPoint)
         .phone(userRequest.getPhone())
         .tagLine(userRequest.getTagLine())
         .summary(userRequest.getSummary())
@@ -62,4 +77,34 @@ public class User {
         .userDetailsProvided(true)
         .build();
   }
+
+  /**
+   * The profile fields that differ between {@code current} and {@code updated}, by field name, so
+   * an update only sets what changed and never touches the relationship sets.
+   */
+  public static Map<String, Object> profileChanges(User current, User updated) {
+    Map<String, Object> changes = new LinkedHashMap<>();
+    putIfChanged(changes, "firstName", current.getFirstName(), updated.getFirstName());
+    putIfChanged(changes, "lastName", current.getLastName(), updated.getLastName());
+    putIfChanged(changes, "gender", current.getGender(), updated.getGender());
+    putIfChanged(changes, "location", current.getLocation(), updated.getLocation());
+    putIfChanged(changes, "geoPoint", current.getGeoPoint(), updated.getGeoPoint());
+    putIfChanged(changes, "phone", current.getPhone(), updated.getPhone());
+    putIfChanged(changes, "tagLine", current.getTagLine(), updated.getTagLine());
+    putIfChanged(changes, "summary", current.getSummary(), updated.getSummary());
+    putIfChanged(changes, "imageUrl", current.getImageUrl(), updated.getImageUrl());
+    putIfChanged(
+        changes,
+        "userDetailsProvided",
+        current.getUserDetailsProvided(),
+        updated.getUserDetailsProvided());
+    return changes;
+  }
+
+  private static void putIfChanged(
+      Map<String, Object> changes, String field, Object current, Object updated) {
+    if (!Objects.equals(current, updated)) {
+      changes.put(field, updated);
+    }
+  }
 }
@@ -0,0 +1,66 @@
+package com.arindamcreates.matchmingle.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Background deletion of a user. The phase, relationship type and cursor are checkpointed after
+ * every batch so an interrupted job resumes where it stopped. A running job is leased by the
+ * instance running it until {@code leaseUntil}, renewed on every checkpoint.
+ */
+@Getter
+@Setter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Document("user_deletion_jobs")
+@CompoundIndexes({
+  @CompoundIndex(name = "status_idx", def = "{'status': 1}"),
+  @CompoundIndex(name = "user_status_idx", def = "{'userId': 1, 'status': 1}")
+})
+public class UserDeletionJob {
+
+  @Field("_id")
+  @Id
+  private ObjectId id;
+
+  private ObjectId userId;
+  private String email;
+  private String requestedBy;
+  private Status status;
+  private Phase phase;
+  private RelationshipType relationshipType; // Type being detached in DETACH_RELATIONSHIPS
+  private ObjectId cursor; // Last peer detached for relationshipType
+  private long processedReferences;
+  private String error;
+  private String owner; // Instance holding the lease while RUNNING
+  private LocalDateTime leaseUntil;
+  private LocalDateTime createdAt;
+  private LocalDateTime updatedAt;
+
+  public enum Status {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+  }
+
+  public enum Phase {
+    REVOKE_ACCESS,
+    DELETE_CONNECTIONS,
+    DELETE_VISIBILITY_REQUESTS,
+    DETACH_RELATIONSHIPS,
+    DELETE_USER,
+    DONE
+  }
+}
@@ -9,6 +9,7 @@ import lombok.Setter;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -18,9 +19,12 @@ import org.springframework.data.mongodb.core.mapping.Field;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "visibility_requests")
-@CompoundIndex(
-    name = "request_lookup_idx",
-    def = "{'requesterId': 1, 'requestedToId': 1, 'type': 1, 'status': 1}")
+@CompoundIndexes({
+  @CompoundIndex(
+      name = "sender_receiver_type_idx",
+      def = "{'sender': 1, 'receiver': 1, 'type': 1}"),
+  @CompoundIndex(name = "receiver_sender_idx", def = "{'receiver': 1, 'sender': 1}")
+})
 public class VisibilityRequest {
   @Field("_id")
   @Id
@@ -1,9 +1,11 @@
 package com.arindamcreates.matchmingle.repository;
 
 import com.arindamcreates.matchmingle.model.Connection;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.DeleteQuery;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -11,10 +13,22 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ConnectionRepository extends MongoRepository<Connection, ObjectId> {
 
-  @Query(
-      "{ $or: [ { $and: [ { 'user1': ?0 }, { 'user2': ?1 } ] }, { $and: [ { 'user1': ?1 }, { 'user2': ?0 } ] } ] }")
-  Optional<Connection> findByUser1AndUser2(ObjectId user1, ObjectId user2);
+  Optional<Connection> findByPairKey(String pairKey);
 
-  // Returns all connections for a user (where they are either user1 or user2)
-  List<Connection> findByUser1OrUser2(ObjectId userId, ObjectId userIdAgain);
+  List<Connection> findByPairKeyIn(Collection<String> pairKeys);
+
+  // Single equality match on the unique pair key, whichever order the users are given in
+  default Optional<Connection> findByUser1AndUser2(ObjectId user1, ObjectId user2) {
+    return findByPairKey(Connection.pairKeyOf(user1, user2));
+  }
+
+  // Returns all connections for a user, each branch of the $or is served by its own index
+  @Query("{ $or: [ { 'user1': ?0 }, { 'user2': ?0 } ] }")
+  List<Connection> findAllByUser(ObjectId userId);
+
+  @Query(value = "{ $or: [ { 'user1': ?0 }, { 'user2': ?0 } ] }", exists = true)
+  boolean existsByUser(ObjectId userId);
+
+  @DeleteQuery("{ $or: [ { 'user1': ?0 }, { 'user2': ?0 } ] }")
+  long deleteAllByUser(ObjectId userId);
 }
@@ -0,0 +1,392 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.dto.PeerProfile;
+import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.model.Relationship;
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.result.UpdateResult;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Relationships kept as one {@link Relationship} document per direction in the {@code
+ * relationships} collection, so the size of a user's network never affects the user document.
+ * The unique {@code owner_type_peer_idx} index guards every transition against duplicates, and
+ * the unique {@code request_pair_idx} lets only one of two users sending each other a request at
+ * the same time succeed.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "matchmingle.relationships.storage", havingValue = "edge")
+public class EdgeRelationshipStore implements RelationshipStore {
+
+  private static final String OWNER = "owner";
+  private static final String PEER = "peer";
+  private static final String TYPE = "type";
+  private static final String CREATED_AT = "createdAt";
+  private static final String RELATIONSHIPS = "relationships";
+  private static final String RELATED = "related";
+  private static final String REQUEST_PAIR_KEY = "requestPairKey";
+
+  private final MongoTemplate mongoTemplate;
+
+  @Override
+  public SendOutcome sendRequest(ObjectId sender, ObjectId receiver) {
+    Query existing = new Query(Criteria.where(OWNER).is(sender).and(PEER).is(receiver));
+    existing.fields().include(TYPE);
+    Relationship relationship = mongoTemplate.findOne(existing, Relationship.class);
+    if (relationship != null) {
+      return rejectedSendOutcome(relationship.getType());
+    }
+    UpdateResult result =
+        mongoTemplate.upsert(
+            requestPairQuery(sender, receiver),
+            newRequest(sender, receiver, LocalDateTime.now()),
+            Relationship.class);
+    if (result.getUpsertedId() == null) {
+      return diagnoseRejectedSend(sender, receiver);
+    }
+    upsertEdge(receiver, RelationshipType.INCOMING_REQUEST, sender);
+    return SendOutcome.SENT;
+  }
+
+  @Override
+  public boolean acceptRequest(ObjectId sender, ObjectId receiver) {
+    if (!deleteEdge(receiver, RelationshipType.INCOMING_REQUEST, sender)) {
+      return false;
+    }
+    Update createdNow = new Update().setOnInsert(CREATED_AT, LocalDateTime.now());
+    mongoTemplate
+        .bulkOps(BulkOperations.BulkMode.UNORDERED, Relationship.class)
+        .remove(edgeQuery(sender, RelationshipType.OUTGOING_REQUEST, receiver))
+        .upsert(edgeQuery(sender, RelationshipType.CONNECTION, receiver), createdNow)
+        .upsert(edgeQuery(receiver, RelationshipType.CONNECTION, sender), createdNow)
+        .execute();
+    return true;
+  }
+
+  @Override
+  public boolean denyRequest(ObjectId sender, ObjectId receiver) {
+    if (!deleteEdge(receiver, RelationshipType.INCOMING_REQUEST, sender)) {
+      return false;
+    }
+    deleteEdge(sender, RelationshipType.OUTGOING_REQUEST, receiver);
+    return true;
+  }
+
+  @Override
+  public boolean removeConnection(ObjectId user, ObjectId connection) {
+    if (!deleteEdge(user, RelationshipType.CONNECTION, connection)) {
+      return false;
+    }
+    deleteEdge(connection, RelationshipType.CONNECTION, user);
+    return true;
+  }
+
+  /**
+   * The outgoing edges are upserted first, keyed by their pair key. A receiver whose upsert matched
+   * an edge instead, e.g. because the receiver sent a request to the sender meanwhile, is diagnosed
+   * again, and only the others get their incoming edge. No write is rejected by an index, which
+   * would abort the surrounding transaction.
+   */
+  @Override
+  public Map<ObjectId, SendOutcome> sendRequests(ObjectId sender, Collection<ObjectId> receivers) {
+    Query existing = new Query(Criteria.where(OWNER).is(sender).and(PEER).in(receivers));
+    existing.fields().include(TYPE, PEER);
+    Map<ObjectId, SendOutcome> rejected = new HashMap<>();
+    for (Relationship relationship : mongoTemplate.find(existing, Relationship.class)) {
+      // The lowest outcome wins when a pair somehow has more than one edge.
+      rejected.merge(
+          relationship.getPeer(),
+          rejectedSendOutcome(relationship.getType()),
+          (a, b) -> a.compareTo(b) <= 0 ? a : b);
+    }
+    Map<ObjectId, SendOutcome> outcomes = new LinkedHashMap<>();
+    List<ObjectId> candidates = new ArrayList<>();
+    for (ObjectId receiver : receivers) {
+      SendOutcome outcome = rejected.getOrDefault(receiver, SendOutcome.SENT);
+      outcomes.put(receiver, outcome);
+      if (outcome == SendOutcome.SENT) {
+        candidates.add(receiver);
+      }
+    }
+    if (candidates.isEmpty()) {
+      return outcomes;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    BulkOperations outgoing =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Relationship.class);
+    for (ObjectId receiver : candidates) {
+      outgoing.upsert(requestPairQuery(sender, receiver), newRequest(sender, receiver, now));
+    }
+    Set<ObjectId> inserted = new HashSet<>();
+    for (BulkWriteUpsert upsert : outgoing.execute().getUpserts()) {
+      inserted.add(candidates.get(upsert.getIndex()));
+    }
+    BulkOperations incoming =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Relationship.class);
+    boolean anySent = false;
+    for (ObjectId receiver : candidates) {
+      if (!inserted.contains(receiver)) {
+        outcomes.put(receiver, diagnoseRejectedSend(sender, receiver));
+      } else {
+        incoming.upsert(
+            edgeQuery(receiver, RelationshipType.INCOMING_REQUEST, sender),
+            new Update().setOnInsert(CREATED_AT, now));
+        anySent = true;
+      }
+    }
+    if (anySent) {
+      incoming.execute();
+    }
+    return outcomes;
+  }
+
+  @Override
+  public Set<ObjectId> acceptRequests(ObjectId receiver, Collection<ObjectId> senders) {
+    Set<ObjectId> accepted = pendingAmong(receiver, senders);
+    if (!accepted.isEmpty()) {
+      Update createdNow = new Update().setOnInsert(CREATED_AT, LocalDateTime.now());
+      BulkOperations bulk = removePending(receiver, accepted);
+      for (ObjectId sender : accepted) {
+        bulk.upsert(edgeQuery(sender, RelationshipType.CONNECTION, receiver), createdNow);
+        bulk.upsert(edgeQuery(receiver, RelationshipType.CONNECTION, sender), createdNow);
+      }
+      bulk.execute();
+    }
+    return accepted;
+  }
+
+  @Override
+  public Set<ObjectId> denyRequests(ObjectId receiver, Collection<ObjectId> senders) {
+    Set<ObjectId> denied = pendingAmong(receiver, senders);
+    if (!denied.isEmpty()) {
+      removePending(receiver, denied).execute();
+    }
+    return denied;
+  }
+
+  @Override
+  public List<ObjectId> findPeers(
+      ObjectId owner, RelationshipType type, ObjectId after, int limit) {
+    Criteria criteria = Criteria.where(OWNER).is(owner).and(TYPE).is(type);
+    if (after != null) {
+      criteria = criteria.and(PEER).gt(after);
+    }
+    Query query = new Query(criteria).with(Sort.by(PEER)).limit(limit);
+    query.fields().include(PEER).exclude("_id");
+    return mongoTemplate.find(query, Relationship.class).stream()
+        .map(Relationship::getPeer)
+        .toList();
+  }
+
+  @Override
+  public Stream<PeerProfile> streamPeerProfiles(
+      ObjectId owner, RelationshipType type, ObjectId after, int limit) {
+    Criteria criteria = Criteria.where(OWNER).is(owner).and(TYPE).is(type);
+    if (after != null) {
+      criteria = criteria.and(PEER).gt(after);
+    }
+    Aggregation aggregation =
+        Aggregation.newAggregation(
+            Aggregation.match(criteria),
+            Aggregation.sort(Sort.by(PEER)),
+            Aggregation.limit(limit),
+            PeerProfileStages.lookupProfile(),
+            PeerProfileStages.toPeerProfile());
+    return mongoTemplate.aggregateStream(aggregation, Relationship.class, PeerProfile.class);
+  }
+
+  @Override
+  public long count(ObjectId owner, RelationshipType type) {
+    return mongoTemplate.count(
+        new Query(Criteria.where(OWNER).is(owner).and(TYPE).is(type)), Relationship.class);
+  }
+
+  /**
+   * Counts the edges of each owner and type, then sums and maxes the counts per type. The first
+   * group has one entry per user and type, so it may spill to disk.
+   */
+  @Override
+  public Map<RelationshipType, SetSizes> sizeStats() {
+    Aggregation aggregation =
+        Aggregation.newAggregation(
+                Aggregation.group(OWNER, TYPE).count().as("size"),
+                Aggregation.group(TYPE).sum("size").as("total").max("size").as("max"))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    Map<RelationshipType, SetSizes> sizes = new EnumMap<>(RelationshipType.class);
+    for (RelationshipType type : RelationshipType.values()) {
+      sizes.put(type, new SetSizes(0, 0));
+    }
+    mongoTemplate
+        .aggregate(aggregation, Relationship.class, Document.class)
+        .forEach(
+            result ->
+                sizes.put(
+                    RelationshipType.valueOf(result.getString("_id")),
+                    new SetSizes(
+                        ((Number) result.get("total")).longValue(),
+                        ((Number) result.get("max")).longValue())));
+    return sizes;
+  }
+
+  /**
+   * Looks up at most one edge from the owner to each candidate through {@code owner_type_peer_idx}
+   * and keeps the candidates without one.
+   */
+  @Override
+  public List<AggregationOperation> excludeRelatedStages(ObjectId owner) {
+    Document lookup =
+        new Document("from", RELATIONSHIPS)
+            .append("localField", "_id")
+            .append("foreignField", PEER)
+            .append(
+                "pipeline",
+                List.of(
+                    new Document("$match", new Document(OWNER, owner)),
+                    new Document("$limit", 1),
+                    new Document("$project", new Document("_id", 1))))
+            .append("as", RELATED);
+    return List.of(
+        context -> new Document("$lookup", lookup),
+        context -> new Document("$match", new Document(RELATED, new Document("$size", 0))),
+        context -> new Document("$unset", RELATED));
+  }
+
+  @Override
+  public List<ObjectId> detachBatch(
+      ObjectId userId, RelationshipType type, ObjectId after, int batchSize) {
+    List<ObjectId> peers = findPeers(userId, type, after, batchSize);
+    if (!peers.isEmpty()) {
+      Criteria peerSides =
+          Criteria.where(OWNER).in(peers).and(TYPE).is(type.inverse()).and(PEER).is(userId);
+      Criteria ownSide = Criteria.where(OWNER).is(userId).and(TYPE).is(type).and(PEER).in(peers);
+      mongoTemplate
+          .bulkOps(BulkOperations.BulkMode.UNORDERED, Relationship.class)
+          .remove(new Query(peerSides))
+          .remove(new Query(ownSide))
+          .execute();
+    }
+    return peers;
+  }
+
+  /** The given senders that have a pending request to the receiver, in the given order. */
+  private Set<ObjectId> pendingAmong(ObjectId receiver, Collection<ObjectId> senders) {
+    Query incoming =
+        new Query(
+            Criteria.where(OWNER)
+                .is(receiver)
+                .and(TYPE)
+                .is(RelationshipType.INCOMING_REQUEST)
+                .and(PEER)
+                .in(senders));
+    incoming.fields().include(PEER);
+    Set<ObjectId> pendingSenders = new HashSet<>();
+    mongoTemplate
+        .find(incoming, Relationship.class)
+        .forEach(relationship -> pendingSenders.add(relationship.getPeer()));
+    Set<ObjectId> pending = new LinkedHashSet<>();
+    senders.stream().filter(pendingSenders::contains).forEach(pending::add);
+    return pending;
+  }
+
+  /** Starts a bulk write that removes both edges of the pending requests from the senders. */
+  private BulkOperations removePending(ObjectId receiver, Set<ObjectId> senders) {
+    Criteria incoming =
+        Criteria.where(OWNER)
+            .is(receiver)
+            .and(TYPE)
+            .is(RelationshipType.INCOMING_REQUEST)
+            .and(PEER)
+            .in(senders);
+    Criteria outgoing =
+        Criteria.where(OWNER)
+            .in(senders)
+            .and(TYPE)
+            .is(RelationshipType.OUTGOING_REQUEST)
+            .and(PEER)
+            .is(receiver);
+    return mongoTemplate
+        .bulkOps(BulkOperations.BulkMode.UNORDERED, Relationship.class)
+        .remove(new Query(incoming))
+        .remove(new Query(outgoing));
+  }
+
+  private static SendOutcome rejectedSendOutcome(RelationshipType existing) {
+    return switch (existing) {
+      case CONNECTION -> SendOutcome.CONNECTION_EXISTS;
+      case OUTGOING_REQUEST -> SendOutcome.REQUEST_ALREADY_SENT;
+      case INCOMING_REQUEST -> SendOutcome.REQUEST_ALREADY_RECEIVED;
+    };
+  }
+
+  /** Why the sender's outgoing edge was not inserted: the pair already had a request. */
+  private SendOutcome diagnoseRejectedSend(ObjectId sender, ObjectId receiver) {
+    Query existing = new Query(Criteria.where(OWNER).is(sender).and(PEER).is(receiver));
+    existing.fields().include(TYPE);
+    Relationship relationship = mongoTemplate.findOne(existing, Relationship.class);
+    if (relationship != null) {
+      return rejectedSendOutcome(relationship.getType());
+    }
+    if (mongoTemplate.exists(
+        edgeQuery(receiver, RelationshipType.OUTGOING_REQUEST, sender), Relationship.class)) {
+      return SendOutcome.REQUEST_ALREADY_RECEIVED;
+    }
+    return SendOutcome.CONFLICT;
+  }
+
+  private boolean deleteEdge(ObjectId owner, RelationshipType type, ObjectId peer) {
+    return mongoTemplate.remove(edgeQuery(owner, type, peer), Relationship.class).getDeletedCount()
+        > 0;
+  }
+
+  private void upsertEdge(ObjectId owner, RelationshipType type, ObjectId peer) {
+    mongoTemplate.upsert(
+        edgeQuery(owner, type, peer),
+        new Update().setOnInsert(CREATED_AT, LocalDateTime.now()),
+        Relationship.class);
+  }
+
+  private static Query edgeQuery(ObjectId owner, RelationshipType type, ObjectId peer) {
+    return new Query(Criteria.where(OWNER).is(owner).and(TYPE).is(type).and(PEER).is(peer));
+  }
+
+  /** Matches the pending request between the two users, whichever of them sent it. */
+  private static Query requestPairQuery(ObjectId sender, ObjectId receiver) {
+    return new Query(Criteria.where(REQUEST_PAIR_KEY).is(Connection.pairKeyOf(sender, receiver)));
+  }
+
+  /** Inserts the sender's outgoing edge unless the pair already has a request. */
+  private static Update newRequest(ObjectId sender, ObjectId receiver, LocalDateTime now) {
+    return new Update()
+        .setOnInsert(OWNER, sender)
+        .setOnInsert(TYPE, RelationshipType.OUTGOING_REQUEST)
+        .setOnInsert(PEER, receiver)
+        .setOnInsert(CREATED_AT, now);
+  }
+}
@@ -0,0 +1,481 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.dto.PeerProfile;
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import com.arindamcreates.matchmingle.model.User;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Relationships kept as arrays on the {@link User} document. Transitions are applied as targeted
+ * {@code $addToSet}/{@code $pull} updates. Each transition starts with one guarded write whose
+ * filter encodes the precondition, so concurrent transitions between the same pair cannot both
+ * succeed or overwrite each other.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+    name = "matchmingle.relationships.storage",
+    havingValue = "embedded",
+    matchIfMissing = true)
+public class EmbeddedRelationshipStore implements RelationshipStore {
+
+  private static final String ID = "_id";
+  private static final String CONNECTIONS = "connections";
+  private static final String INCOMING_REQUESTS = "incomingRequests";
+  private static final String OUTGOING_REQUESTS = "outgoingRequests";
+
+  private final MongoTemplate mongoTemplate;
+
+  /**
+   * Both sides are guarded. When the receiver side no longer matches, e.g. because the receiver
+   * sent a request to the sender at the same time, the sender side is undone and the outcome is
+   * diagnosed again.
+   */
+  @Override
+  public SendOutcome sendRequest(ObjectId sender, ObjectId receiver) {
+    Query guard = unrelatedPair(sender, receiver);
+    if (mongoTemplate
+            .updateFirst(guard, new Update().addToSet(OUTGOING_REQUESTS, receiver), User.class)
+            .getMatchedCount()
+        == 0) {
+      return diagnoseRejectedSend(sender, receiver);
+    }
+    if (mongoTemplate
+            .updateFirst(
+                unrelatedPair(receiver, sender),
+                new Update().addToSet(INCOMING_REQUESTS, sender),
+                User.class)
+            .getMatchedCount()
+        == 0) {
+      mongoTemplate.updateFirst(
+          new Query(Criteria.where(ID).is(sender)),
+          new Update().pull(OUTGOING_REQUESTS, receiver),
+          User.class);
+      SendOutcome outcome = diagnoseRejectedSend(sender, receiver);
+      return outcome == SendOutcome.USER_NOT_FOUND ? SendOutcome.CONFLICT : outcome;
+    }
+    return SendOutcome.SENT;
+  }
+
+  @Override
+  public boolean acceptRequest(ObjectId sender, ObjectId receiver) {
+    Query guard = pendingRequest(sender, receiver);
+    Update receiverUpdate =
+        new Update().pull(INCOMING_REQUESTS, sender).addToSet(CONNECTIONS, sender);
+    if (mongoTemplate.updateFirst(guard, receiverUpdate, User.class).getModifiedCount() == 0) {
+      return false;
+    }
+    mongoTemplate.updateFirst(
+        new Query(Criteria.where(ID).is(sender)),
+        new Update().pull(OUTGOING_REQUESTS, receiver).addToSet(CONNECTIONS, receiver),
+        User.class);
+    return true;
+  }
+
+  @Override
+  public boolean denyRequest(ObjectId sender, ObjectId receiver) {
+    Query guard = pendingRequest(sender, receiver);
+    if (mongoTemplate
+            .updateFirst(guard, new Update().pull(INCOMING_REQUESTS, sender), User.class)
+            .getModifiedCount()
+        == 0) {
+      return false;
+    }
+    mongoTemplate.updateFirst(
+        new Query(Criteria.where(ID).is(sender)),
+        new Update().pull(OUTGOING_REQUESTS, receiver),
+        User.class);
+    return true;
+  }
+
+  @Override
+  public boolean removeConnection(ObjectId user, ObjectId connection) {
+    Query guard = new Query(Criteria.where(ID).is(user).and(CONNECTIONS).is(connection));
+    if (mongoTemplate
+            .updateFirst(guard, new Update().pull(CONNECTIONS, connection), User.class)
+            .getModifiedCount()
+        == 0) {
+      return false;
+    }
+    mongoTemplate.updateFirst(
+        new Query(Criteria.where(ID).is(connection)),
+        new Update().pull(CONNECTIONS, user),
+        User.class);
+    return true;
+  }
+
+  /**
+   * The sender side of every pair is written first, each with its own guard, then the receiver
+   * sides with a guard per receiver. When a bulk write modified fewer documents than it had pairs,
+   * the pairs that took are read back. A receiver side that no longer matched, e.g. because that
+   * receiver sent a request to the sender meanwhile, has its sender side undone, so no pair is
+   * left half written.
+   */
+  @Override
+  public Map<ObjectId, SendOutcome> sendRequests(ObjectId sender, Collection<ObjectId> receivers) {
+    Map<RelationshipType, Set<ObjectId>> existing = relationshipsAmong(sender, receivers);
+    Map<ObjectId, SendOutcome> outcomes = new LinkedHashMap<>();
+    Set<ObjectId> candidates = new LinkedHashSet<>();
+    for (ObjectId receiver : receivers) {
+      SendOutcome outcome = sendOutcome(existing, receiver);
+      outcomes.put(receiver, outcome);
+      if (outcome == SendOutcome.SENT) {
+        candidates.add(receiver);
+      }
+    }
+    if (candidates.isEmpty()) {
+      return outcomes;
+    }
+    BulkOperations senderSide =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+    candidates.forEach(
+        receiver ->
+            senderSide.updateOne(
+                unrelatedPair(sender, receiver),
+                new Update().addToSet(OUTGOING_REQUESTS, receiver)));
+    Set<ObjectId> written =
+        senderSide.execute().getModifiedCount() == candidates.size()
+            ? candidates
+            : retain(
+                candidates,
+                relationshipsAmong(sender, candidates),
+                RelationshipType.OUTGOING_REQUEST);
+    Set<ObjectId> sent = written;
+    if (!written.isEmpty()) {
+      Query receiverSides =
+          new Query(
+              Criteria.where(ID)
+                  .in(written)
+                  .and(CONNECTIONS)
+                  .ne(sender)
+                  .and(OUTGOING_REQUESTS)
+                  .ne(sender)
+                  .and(INCOMING_REQUESTS)
+                  .ne(sender));
+      long modified =
+          mongoTemplate
+              .updateMulti(
+                  receiverSides, new Update().addToSet(INCOMING_REQUESTS, sender), User.class)
+              .getModifiedCount();
+      if (modified < written.size()) {
+        sent = holding(written, INCOMING_REQUESTS, sender);
+        Set<ObjectId> undone = new HashSet<>(written);
+        undone.removeAll(sent);
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where(ID).is(sender)),
+            new Update().pullAll(OUTGOING_REQUESTS, undone.toArray()),
+            User.class);
+      }
+    }
+    Set<ObjectId> rejected = new LinkedHashSet<>(candidates);
+    rejected.removeAll(sent);
+    if (!rejected.isEmpty()) {
+      Map<RelationshipType, Set<ObjectId>> current = relationshipsAmong(sender, rejected);
+      for (ObjectId receiver : rejected) {
+        SendOutcome outcome = sendOutcome(current, receiver);
+        outcomes.put(receiver, outcome == SendOutcome.SENT ? SendOutcome.CONFLICT : outcome);
+      }
+    }
+    return outcomes;
+  }
+
+  /**
+   * One guarded update per sender on the receiver, so a request withdrawn or denied since it was
+   * read is left alone. Each update is sent on its own: only a sender whose own update took counts
+   * as accepted, not one a concurrent accept connected, which a bulk's total modified count cannot
+   * tell apart. The senders are only connected back once their receiver side took.
+   */
+  @Override
+  public Set<ObjectId> acceptRequests(ObjectId receiver, Collection<ObjectId> senders) {
+    Set<ObjectId> pending = pendingAmong(receiver, senders);
+    Set<ObjectId> accepted = new LinkedHashSet<>();
+    for (ObjectId sender : pending) {
+      long modified =
+          mongoTemplate
+              .updateFirst(
+                  pendingRequest(sender, receiver),
+                  new Update().pull(INCOMING_REQUESTS, sender).addToSet(CONNECTIONS, sender),
+                  User.class)
+              .getModifiedCount();
+      if (modified > 0) {
+        accepted.add(sender);
+      }
+    }
+    if (!accepted.isEmpty()) {
+      mongoTemplate.updateMulti(
+          new Query(Criteria.where(ID).in(accepted)),
+          new Update().pull(OUTGOING_REQUESTS, receiver).addToSet(CONNECTIONS, receiver),
+          User.class);
+    }
+    return accepted;
+  }
+
+  /** Guarded per sender like {@link #acceptRequests}. */
+  @Override
+  public Set<ObjectId> denyRequests(ObjectId receiver, Collection<ObjectId> senders) {
+    Set<ObjectId> pending = pendingAmong(receiver, senders);
+    if (pending.isEmpty()) {
+      return pending;
+    }
+    BulkOperations receiverSide =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+    pending.forEach(
+        sender ->
+            receiverSide.updateOne(
+                pendingRequest(sender, receiver), new Update().pull(INCOMING_REQUESTS, sender)));
+    Set<ObjectId> denied = pending;
+    if (receiverSide.execute().getModifiedCount() < pending.size()) {
+      // Requests still pending were not matched, connected ones were accepted concurrently
+      Map<RelationshipType, Set<ObjectId>> current = relationshipsAmong(receiver, pending);
+      denied = new LinkedHashSet<>(pending);
+      denied.removeAll(current.getOrDefault(RelationshipType.INCOMING_REQUEST, Set.of()));
+      denied.removeAll(current.getOrDefault(RelationshipType.CONNECTION, Set.of()));
+    }
+    if (!denied.isEmpty()) {
+      mongoTemplate.updateMulti(
+          new Query(Criteria.where(ID).in(denied)),
+          new Update().pull(OUTGOING_REQUESTS, receiver),
+          User.class);
+    }
+    return denied;
+  }
+
+  @Override
+  public List<ObjectId> findPeers(
+      ObjectId owner, RelationshipType type, ObjectId after, int limit) {
+    Document result = aggregateOwner(owner, new Document("peers", peerPage(type, after, limit)));
+    return result == null ? List.of() : result.getList("peers", ObjectId.class);
+  }
+
+  @Override
+  public Stream<PeerProfile> streamPeerProfiles(
+      ObjectId owner, RelationshipType type, ObjectId after, int limit) {
+    Document page = new Document("_id", 0).append("peer", peerPage(type, after, limit));
+    Aggregation aggregation =
+        Aggregation.newAggregation(
+            Aggregation.match(Criteria.where(ID).is(owner)),
+            context -> new Document("$project", page),
+            context -> new Document("$unwind", "$peer"),
+            PeerProfileStages.lookupProfile(),
+            PeerProfileStages.toPeerProfile());
+    return mongoTemplate.aggregateStream(aggregation, User.class, PeerProfile.class);
+  }
+
+  @Override
+  public long count(ObjectId owner, RelationshipType type) {
+    Document size = new Document("$size", arrayOf(type));
+    Document result = aggregateOwner(owner, new Document("count", size));
+    return result == null ? 0 : result.getInteger("count");
+  }
+
+  /** One {@code $group} over all users that sums and maxes the size of each array. */
+  @Override
+  public Map<RelationshipType, SetSizes> sizeStats() {
+    Document group = new Document(ID, null);
+    for (RelationshipType type : RelationshipType.values()) {
+      Document size = new Document("$size", arrayOf(type));
+      group
+          .append(type.getUserField() + "Total", new Document("$sum", size))
+          .append(type.getUserField() + "Max", new Document("$max", size));
+    }
+    Aggregation aggregation = Aggregation.newAggregation(context -> new Document("$group", group));
+    Document result =
+        mongoTemplate.aggregate(aggregation, User.class, Document.class).getUniqueMappedResult();
+    Map<RelationshipType, SetSizes> sizes = new EnumMap<>(RelationshipType.class);
+    for (RelationshipType type : RelationshipType.values()) {
+      sizes.put(
+          type,
+          new SetSizes(
+              longValue(result, type.getUserField() + "Total"),
+              longValue(result, type.getUserField() + "Max")));
+    }
+    return sizes;
+  }
+
+  /** Relationships are mirrored on both users, so each candidate's own arrays name the owner. */
+  @Override
+  public List<AggregationOperation> excludeRelatedStages(ObjectId owner) {
+    return List.of(
+        Aggregation.match(
+            Criteria.where(CONNECTIONS)
+                .ne(owner)
+                .and(INCOMING_REQUESTS)
+                .ne(owner)
+                .and(OUTGOING_REQUESTS)
+                .ne(owner)));
+  }
+
+  @Override
+  public List<ObjectId> detachBatch(
+      ObjectId userId, RelationshipType type, ObjectId after, int batchSize) {
+    List<ObjectId> peers = findPeers(userId, type, after, batchSize);
+    if (!peers.isEmpty()) {
+      // The user's own arrays go away with the user document.
+      mongoTemplate.updateMulti(
+          new Query(Criteria.where(ID).in(peers)),
+          new Update().pull(type.inverse().getUserField(), userId),
+          User.class);
+    }
+    return peers;
+  }
+
+  /** Matches the owner only while it has no relationship of any kind with the peer. */
+  private static Query unrelatedPair(ObjectId owner, ObjectId peer) {
+    return new Query(
+        Criteria.where(ID)
+            .is(owner)
+            .and(CONNECTIONS)
+            .ne(peer)
+            .and(OUTGOING_REQUESTS)
+            .ne(peer)
+            .and(INCOMING_REQUESTS)
+            .ne(peer));
+  }
+
+  /** Matches the receiver only while the sender's request to it is pending. */
+  private static Query pendingRequest(ObjectId sender, ObjectId receiver) {
+    return new Query(Criteria.where(ID).is(receiver).and(INCOMING_REQUESTS).is(sender));
+  }
+
+  /** The ids that the owner's relationships of the type now contain, in the given order. */
+  private static Set<ObjectId> retain(
+      Set<ObjectId> ids,
+      Map<RelationshipType, Set<ObjectId>> relationships,
+      RelationshipType type) {
+    Set<ObjectId> present = relationships.getOrDefault(type, Set.of());
+    return ids.stream()
+        .filter(present::contains)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  /** The given owners whose field contains the peer. */
+  private Set<ObjectId> holding(Collection<ObjectId> owners, String field, ObjectId peer) {
+    Query query = new Query(Criteria.where(ID).in(owners).and(field).is(peer));
+    query.fields().include(ID);
+    return mongoTemplate.find(query, User.class).stream()
+        .map(User::getId)
+        .collect(Collectors.toSet());
+  }
+
+  private static SendOutcome sendOutcome(
+      Map<RelationshipType, Set<ObjectId>> existing, ObjectId receiver) {
+    if (existing.isEmpty()) {
+      return SendOutcome.USER_NOT_FOUND;
+    }
+    if (existing.get(RelationshipType.CONNECTION).contains(receiver)) {
+      return SendOutcome.CONNECTION_EXISTS;
+    }
+    if (existing.get(RelationshipType.OUTGOING_REQUEST).contains(receiver)) {
+      return SendOutcome.REQUEST_ALREADY_SENT;
+    }
+    if (existing.get(RelationshipType.INCOMING_REQUEST).contains(receiver)) {
+      return SendOutcome.REQUEST_ALREADY_RECEIVED;
+    }
+    return SendOutcome.SENT;
+  }
+
+  /** The given senders that have a pending request to the receiver, in the given order. */
+  private Set<ObjectId> pendingAmong(ObjectId receiver, Collection<ObjectId> senders) {
+    Set<ObjectId> incoming =
+        relationshipsAmong(receiver, senders)
+            .getOrDefault(RelationshipType.INCOMING_REQUEST, Set.of());
+    Set<ObjectId> pending = new LinkedHashSet<>();
+    senders.stream().filter(incoming::contains).forEach(pending::add);
+    return pending;
+  }
+
+  /**
+   * Intersects each of the owner's arrays with the given peers server-side, so only the matching
+   * ids travel back. Empty when the owner does not exist.
+   */
+  private Map<RelationshipType, Set<ObjectId>> relationshipsAmong(
+      ObjectId owner, Collection<ObjectId> peers) {
+    List<ObjectId> peerList = List.copyOf(peers);
+    Document projection = new Document();
+    for (RelationshipType type : RelationshipType.values()) {
+      projection.append(
+          type.getUserField(), new Document("$setIntersection", List.of(arrayOf(type), peerList)));
+    }
+    Document result = aggregateOwner(owner, projection);
+    Map<RelationshipType, Set<ObjectId>> relationships = new EnumMap<>(RelationshipType.class);
+    if (result != null) {
+      for (RelationshipType type : RelationshipType.values()) {
+        relationships.put(
+            type, new HashSet<>(result.getList(type.getUserField(), ObjectId.class)));
+      }
+    }
+    return relationships;
+  }
+
+  /** The owner's peers of the type after the cursor, sorted by id and cut to the limit. */
+  private static Document peerPage(RelationshipType type, ObjectId after, int limit) {
+    Object afterCondition = after == null ? true : new Document("$gt", List.of("$$peer", after));
+    Document filtered =
+        new Document(
+            "$filter",
+            new Document("input", arrayOf(type))
+                .append("as", "peer")
+                .append("cond", afterCondition));
+    Document sorted =
+        new Document("$sortArray", new Document("input", filtered).append("sortBy", 1));
+    return new Document("$slice", List.of(sorted, limit));
+  }
+
+  private static long longValue(Document document, String field) {
+    return document != null && document.get(field) instanceof Number number
+        ? number.longValue()
+        : 0;
+  }
+
+  private static Document arrayOf(RelationshipType type) {
+    return new Document("$ifNull", List.of("$" + type.getUserField(), List.of()));
+  }
+
+  /** Projects the owner's document server-side so only the computed fields travel back. */
+  private Document aggregateOwner(ObjectId owner, Document projection) {
+    AggregationOperation project = context -> new Document("$project", projection);
+    Aggregation aggregation =
+        Aggregation.newAggregation(Aggregation.match(Criteria.where(ID).is(owner)), project);
+    return mongoTemplate.aggregate(aggregation, User.class, Document.class).getUniqueMappedResult();
+  }
+
+  /** Only runs when the guarded write matched nothing, to report why the send was rejected. */
+  private SendOutcome diagnoseRejectedSend(ObjectId sender, ObjectId receiver) {
+    if (senderHas(sender, CONNECTIONS, receiver)) {
+      return SendOutcome.CONNECTION_EXISTS;
+    }
+    if (senderHas(sender, OUTGOING_REQUESTS, receiver)) {
+      return SendOutcome.REQUEST_ALREADY_SENT;
+    }
+    if (senderHas(sender, INCOMING_REQUESTS, receiver)) {
+      return SendOutcome.REQUEST_ALREADY_RECEIVED;
+    }
+    return SendOutcome.USER_NOT_FOUND;
+  }
+
+  private boolean senderHas(ObjectId sender, String field, ObjectId peer) {
+    return mongoTemplate.exists(
+        new Query(Criteria.where(ID).is(sender).and(field).is(peer)), User.class);
+  }
+}
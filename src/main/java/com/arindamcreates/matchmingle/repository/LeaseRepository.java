@@ -0,0 +1,47 @@
+package com.arindamcreates.matchmingle.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Named leases in the {@code leases} collection, for work that only one instance should do at a
+ * time. A lease is held by this instance until it expires and is renewed by acquiring it again.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LeaseRepository {
+
+  private static final String LEASES = "leases";
+
+  private final MongoTemplate mongoTemplate;
+  private final String instanceId = UUID.randomUUID().toString();
+
+  /**
+   * Takes or renews the lease for {@code ttl}. The upsert only matches a lease this instance holds
+   * or one that expired; while another instance holds it, the insert fails on {@code _id}.
+   */
+  public boolean tryAcquire(String name, Duration ttl) {
+    LocalDateTime now = LocalDateTime.now();
+    Query available =
+        new Query(
+            Criteria.where("_id")
+                .is(name)
+                .orOperator(
+                    Criteria.where("owner").is(instanceId), Criteria.where("until").lt(now)));
+    try {
+      mongoTemplate.upsert(
+          available, new Update().set("owner", instanceId).set("until", now.plus(ttl)), LEASES);
+      return true;
+    } catch (DuplicateKeyException ex) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.dto.NearbyUser;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Nearby discovery over the {@code geo_point_idx} 2dsphere index. {@code $geoNear} walks the index
+ * outwards from the caller, and users the caller is already related to are dropped by the
+ * relationship store's stages as the candidates stream past. Pages are read with a seek cursor on
+ * distance and {@code _id}, so the page is sorted on both before it is cut: {@code $geoNear}
+ * leaves ties in no particular order, and cutting first could keep an arbitrary subset of the
+ * users tied at the boundary and skip the rest on the next page. The {@code $sort} and {@code
+ * $limit} coalesce into a top-k sort that holds at most one page in memory, but it reads every
+ * candidate within {@code maxDistance}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NearbyUserRepository {
+
+  private static final String USER_COLLECTION = "User";
+  private static final String GEO_POINT = "geoPoint";
+  private static final String DISTANCE = "distance";
+  private static final String[] HIT_FIELDS = {
+    "firstName", "lastName", "gender", "imageUrl", "tagLine", DISTANCE
+  };
+
+  private final MongoTemplate mongoTemplate;
+  private final RelationshipStore relationshipStore;
+
+  /**
+   * Searchable users within {@code maxDistance} meters of the origin that the caller has no
+   * relationship with, nearest first, resuming after the given hit.
+   */
+  public List<NearbyUser> findNearby(
+      ObjectId caller,
+      GeoJsonPoint origin,
+      double maxDistance,
+      Double afterDistance,
+      ObjectId afterId,
+      int limit) {
+    Document geoNear =
+        new Document(
+                "near",
+                new Document("type", "Point").append("coordinates", origin.getCoordinates()))
+            .append("key", GEO_POINT)
+            .append("distanceField", DISTANCE)
+            .append("spherical", true)
+            .append("maxDistance", maxDistance)
+            .append(
+                "query",
+                ProfileSearchRepository.searchable().and("_id").ne(caller).getCriteriaObject());
+    if (afterDistance != null) {
+      geoNear.append("minDistance", afterDistance);
+    }
+    Document project = new Document();
+    for (String field : HIT_FIELDS) {
+      project.append(field, 1);
+    }
+    List<AggregationOperation> pipeline = new ArrayList<>();
+    pipeline.add(stage("$geoNear", geoNear));
+    pipeline.addAll(relationshipStore.excludeRelatedStages(caller));
+    if (afterDistance != null) {
+      pipeline.add(stage("$match", seek(afterDistance, afterId)));
+    }
+    // $geoNear leaves users at exactly the same distance in no particular order.
+    pipeline.add(stage("$sort", new Document(DISTANCE, 1).append("_id", 1)));
+    pipeline.add(stage("$limit", limit));
+    pipeline.add(stage("$project", project));
+    return mongoTemplate
+        .aggregate(Aggregation.newAggregation(pipeline), USER_COLLECTION, NearbyUser.class)
+        .getMappedResults();
+  }
+
+  private static Document seek(double afterDistance, ObjectId afterId) {
+    return new Document(
+        "$or",
+        List.of(
+            new Document(DISTANCE, new Document("$gt", afterDistance)),
+            new Document(DISTANCE, afterDistance).append("_id", new Document("$gt", afterId))));
+  }
+
+  private static AggregationOperation stage(String name, Object body) {
+    return context -> new Document(name, body);
+  }
+}
@@ -0,0 +1,140 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.model.DomainEvent;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The domain event outbox. Sequences come from a counter document that is incremented outside the
+ * appending transaction, so concurrent transactions never conflict on it. A sequence is reserved
+ * before the transaction commits, so a change that saw another one committed always gets the
+ * larger sequence, while sequences of transactions still in flight show up as gaps the relay waits
+ * for. A rolled back transaction fills its sequences with {@link DomainEvent.Type#VOIDED} events.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+  private static final String SEQUENCES = "outbox_sequences";
+  private static final String OUTBOX_COUNTER = "outbox";
+  private static final String SEQUENCE = "sequence";
+
+  private final MongoTemplate mongoTemplate;
+
+  /** Must run in the transaction of the change the events describe. */
+  public void append(List<DomainEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    long last = reserve(events.size());
+    long first = last - events.size() + 1;
+    long sequence = first;
+    for (DomainEvent event : events) {
+      event.setSequence(sequence++);
+    }
+    voidOnRollback(first, last);
+    mongoTemplate.insert(events, DomainEvent.class);
+  }
+
+  public List<DomainEvent> findAfter(long after, int limit) {
+    Query query =
+        new Query(Criteria.where(SEQUENCE).gt(after)).with(Sort.by(SEQUENCE)).limit(limit);
+    return mongoTemplate.find(query, DomainEvent.class);
+  }
+
+  public List<DomainEvent> findBySubjectAfter(
+      ObjectId subject, Collection<DomainEvent.Type> types, long after, int limit) {
+    Criteria criteria =
+        Criteria.where("subject").is(subject).and(SEQUENCE).gt(after).and("type").in(types);
+    Query query = new Query(criteria).with(Sort.by(SEQUENCE)).limit(limit);
+    return mongoTemplate.find(query, DomainEvent.class);
+  }
+
+  /** The last reserved sequence, 0 while the outbox is empty. */
+  public long lastSequence() {
+    Document counter =
+        mongoTemplate.findOne(
+            new Query(Criteria.where("_id").is(OUTBOX_COUNTER)), Document.class, SEQUENCES);
+    return counter == null ? 0 : counter.get(SEQUENCE, Number.class).longValue();
+  }
+
+  /**
+   * Advances the counter by {@code count} and returns the new last sequence. It goes through the
+   * driver collection rather than the template, which would join the caller's session.
+   */
+  private long reserve(int count) {
+    try {
+      Document counter =
+          collection(SEQUENCES)
+              .findOneAndUpdate(
+                  Filters.eq("_id", OUTBOX_COUNTER),
+                  Updates.inc(SEQUENCE, count),
+                  new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+      return counter.get(SEQUENCE, Number.class).longValue();
+    } catch (MongoException ex) {
+      throw translate(ex);
+    }
+  }
+
+  private void voidOnRollback(long first, long last) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED) {
+              insertVoided(first, last);
+            }
+          }
+        });
+  }
+
+  /** Outside of any session, the transaction that reserved the sequences is already over. */
+  private void insertVoided(long first, long last) {
+    List<Document> voided = new ArrayList<>();
+    for (long sequence = first; sequence <= last; sequence++) {
+      voided.add(
+          new Document(SEQUENCE, sequence)
+              .append("type", DomainEvent.Type.VOIDED.name())
+              .append("occurredAt", new Date()));
+    }
+    try {
+      collection(mongoTemplate.getCollectionName(DomainEvent.class)).insertMany(voided);
+    } catch (MongoException ex) {
+      log.warn("Could not void sequences {} to {}: {}", first, last, ex.getMessage());
+    }
+  }
+
+  private MongoCollection<Document> collection(String name) {
+    return mongoTemplate.getMongoDatabaseFactory().getMongoDatabase().getCollection(name);
+  }
+
+  private RuntimeException translate(MongoException ex) {
+    DataAccessException translated =
+        mongoTemplate.getExceptionTranslator().translateExceptionIfPossible(ex);
+    return translated != null ? translated : ex;
+  }
+}
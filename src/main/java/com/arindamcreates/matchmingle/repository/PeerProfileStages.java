@@ -0,0 +1,43 @@
+package com.arindamcreates.matchmingle.repository;
+
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+/**
+ * Aggregation stages shared by the relationship stores to join a page of peer ids, held in the
+ * {@code peer} field, with their {@link com.arindamcreates.matchmingle.dto.PeerProfile}.
+ */
+final class PeerProfileStages {
+
+  private static final String USER_COLLECTION = "User";
+
+  private PeerProfileStages() {}
+
+  /** Joins each peer with its profile fields through the {@code _id} index. */
+  static AggregationOperation lookupProfile() {
+    Document fields =
+        new Document("_id", 0)
+            .append("firstName", 1)
+            .append("lastName", 1)
+            .append("imageUrl", 1)
+            .append("tagLine", 1);
+    return context ->
+        new Document(
+            "$lookup",
+            new Document("from", USER_COLLECTION)
+                .append("localField", "peer")
+                .append("foreignField", "_id")
+                .append("pipeline", List.of(new Document("$project", fields)))
+                .append("as", "profile"));
+  }
+
+  /** Replaces each document with its peer's profile, or just the peer id if it is gone. */
+  static AggregationOperation toPeerProfile() {
+    Document profile =
+        new Document(
+            "$mergeObjects",
+            List.of(new Document("_id", "$peer"), new Document("$first", "$profile")));
+    return context -> new Document("$replaceWith", profile);
+  }
+}
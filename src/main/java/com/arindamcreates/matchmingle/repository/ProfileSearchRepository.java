@@ -0,0 +1,101 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.dto.ProfileSearchHit;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Profile search over users that can be found: details provided and not locked. The same
+ * condition is the partial filter of the search indexes created by {@code MongoIndexInitializer},
+ * so every query here carries it to stay eligible for them. Pages are read with a seek cursor on
+ * {@code _id}, or on text score and {@code _id} for text searches, never with skip.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProfileSearchRepository {
+
+  private static final String USER_COLLECTION = "User";
+  private static final String[] HIT_FIELDS = {
+    "firstName", "lastName", "gender", "location", "imageUrl", "tagLine"
+  };
+
+  private final MongoTemplate mongoTemplate;
+
+  /** Users that search may return. Also the partial filter of the search indexes. */
+  public static Criteria searchable() {
+    return Criteria.where("userDetailsProvided").is(true).and("userLocked").is(false);
+  }
+
+  public List<ProfileSearchHit> search(
+      String location, String gender, ObjectId after, int limit) {
+    Criteria criteria = filters(location, gender);
+    if (after != null) {
+      criteria = criteria.and("_id").gt(after);
+    }
+    Query query = new Query(criteria).with(Sort.by("_id")).limit(limit);
+    query.fields().include(HIT_FIELDS);
+    return mongoTemplate.find(query, ProfileSearchHit.class, USER_COLLECTION);
+  }
+
+  /** Text search ranked by relevance, then {@code _id}, resuming after the given hit. */
+  public List<ProfileSearchHit> searchText(
+      String text,
+      String location,
+      String gender,
+      Double afterScore,
+      ObjectId afterId,
+      int limit) {
+    Document match = filters(location, gender).getCriteriaObject();
+    match.append("$text", new Document("$search", text));
+    Document project = new Document("score", 1);
+    for (String field : HIT_FIELDS) {
+      project.append(field, 1);
+    }
+    List<AggregationOperation> pipeline = new ArrayList<>();
+    pipeline.add(stage("$match", match));
+    pipeline.add(stage("$set", new Document("score", new Document("$meta", "textScore"))));
+    if (afterScore != null) {
+      pipeline.add(stage("$match", seek(afterScore, afterId)));
+    }
+    pipeline.add(stage("$sort", new Document("score", -1).append("_id", 1)));
+    pipeline.add(stage("$limit", limit));
+    pipeline.add(stage("$project", project));
+    Aggregation aggregation = Aggregation.newAggregation(pipeline);
+    return mongoTemplate
+        .aggregate(aggregation, USER_COLLECTION, ProfileSearchHit.class)
+        .getMappedResults();
+  }
+
+  private static Criteria filters(String location, String gender) {
+    Criteria criteria = searchable();
+    if (location != null) {
+      criteria = criteria.and("location").is(location);
+    }
+    if (gender != null) {
+      criteria = criteria.and("gender").is(gender);
+    }
+    return criteria;
+  }
+
+  private static Document seek(double afterScore, ObjectId afterId) {
+    return new Document(
+        "$or",
+        List.of(
+            new Document("score", new Document("$lt", afterScore)),
+            new Document("score", afterScore).append("_id", new Document("$gt", afterId))));
+  }
+
+  private static AggregationOperation stage(String name, Object body) {
+    return context -> new Document(name, body);
+  }
+}
@@ -0,0 +1,81 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.model.User;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.result.UpdateResult;
+import java.util.Map;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Partial profile writes. Only the changed fields are {@code $set}, guarded by the {@code
+ * profileVersion} the changes were computed from, so a concurrent update is detected instead of
+ * overwritten. Writes use {@code matchmingle.profile.write-concern}, e.g. {@code MAJORITY} or
+ * {@code JOURNALED} when an acknowledged edit must survive a primary failover, on the collection
+ * of the shared template for just these updates.
+ */
+@Repository
+public class ProfileUpdateRepository {
+
+  private static final String PROFILE_VERSION = "profileVersion";
+
+  private final MongoTemplate mongoTemplate;
+  private final WriteConcern writeConcern;
+  private final QueryMapper queryMapper;
+  private final UpdateMapper updateMapper;
+  private final MongoPersistentEntity<?> userEntity;
+
+  public ProfileUpdateRepository(
+      MongoTemplate mongoTemplate,
+      @Value("${matchmingle.profile.write-concern:ACKNOWLEDGED}") String writeConcern) {
+    this.mongoTemplate = mongoTemplate;
+    this.writeConcern = WriteConcern.valueOf(writeConcern);
+    this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    this.updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+    this.userEntity =
+        mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(User.class);
+  }
+
+  /** Returns false when the profile is no longer at {@code expectedVersion}. */
+  public boolean applyChanges(ObjectId userId, Long expectedVersion, Map<String, Object> changes) {
+    Criteria criteria = Criteria.where("_id").is(userId);
+    if (expectedVersion == null) {
+      criteria.and(PROFILE_VERSION).exists(false);
+    } else {
+      criteria.and(PROFILE_VERSION).is(expectedVersion);
+    }
+    return update(criteria, changes);
+  }
+
+  /**
+   * Sets the changes over whatever version the profile is at, for values known to be the user's
+   * latest. Returns false when the user no longer exists.
+   */
+  public boolean applyLatestChanges(ObjectId userId, Map<String, Object> changes) {
+    return update(Criteria.where("_id").is(userId), changes);
+  }
+
+  private boolean update(Criteria criteria, Map<String, Object> changes) {
+    Update update = new Update().inc(PROFILE_VERSION, 1);
+    changes.forEach(update::set);
+    UpdateResult result =
+        mongoTemplate.execute(
+            User.class,
+            collection ->
+                collection
+                    .withWriteConcern(writeConcern)
+                    .updateOne(
+                        queryMapper.getMappedObject(
+                            new Query(criteria).getQueryObject(), userEntity),
+                        updateMapper.getMappedObject(update.getUpdateObject(), userEntity)));
+    return result.getMatchedCount() == 1;
+  }
+}
@@ -0,0 +1,87 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.dto.PeerProfile;
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+/**
+ * Storage of connections and pending connection requests between users. The implementation is
+ * selected by {@code matchmingle.relationships.storage}: {@code embedded} keeps them as arrays on
+ * the user document, {@code edge} keeps one document per relationship.
+ */
+public interface RelationshipStore {
+
+  SendOutcome sendRequest(ObjectId sender, ObjectId receiver);
+
+  boolean acceptRequest(ObjectId sender, ObjectId receiver);
+
+  boolean denyRequest(ObjectId sender, ObjectId receiver);
+
+  boolean removeConnection(ObjectId user, ObjectId connection);
+
+  /**
+   * Batch variant of {@link #sendRequest}. The current state of every pair is read at once and the
+   * transitions are applied with bulk writes, each still guarded per pair. Returns the outcome for
+   * each receiver as written, {@link SendOutcome#CONFLICT} when a pair changed concurrently.
+   */
+  Map<ObjectId, SendOutcome> sendRequests(ObjectId sender, Collection<ObjectId> receivers);
+
+  /** Batch variant of {@link #acceptRequest}. Returns the senders whose requests were accepted. */
+  Set<ObjectId> acceptRequests(ObjectId receiver, Collection<ObjectId> senders);
+
+  /** Batch variant of {@link #denyRequest}. Returns the senders whose requests were denied. */
+  Set<ObjectId> denyRequests(ObjectId receiver, Collection<ObjectId> senders);
+
+  /**
+   * Returns up to {@code limit} peers of the owner for the given type in ascending id order,
+   * starting after the {@code after} cursor, or from the beginning when it is null.
+   */
+  List<ObjectId> findPeers(ObjectId owner, RelationshipType type, ObjectId after, int limit);
+
+  /**
+   * Streams the same page as {@link #findPeers}, joined with the peers' profiles in a single
+   * aggregation. The caller must close the stream.
+   */
+  Stream<PeerProfile> streamPeerProfiles(
+      ObjectId owner, RelationshipType type, ObjectId after, int limit);
+
+  long count(ObjectId owner, RelationshipType type);
+
+  /**
+   * Aggregation stages over the {@code User} collection that drop every user the owner is
+   * connected to or has a pending request with, in either direction. The check runs in the
+   * database, so the owner's network is never loaded into the application.
+   */
+  List<AggregationOperation> excludeRelatedStages(ObjectId owner);
+
+  /**
+   * Detaches the next batch of up to {@code batchSize} peers of the given type, after the {@code
+   * after} cursor, from the user on both sides. Returns the detached peers, empty once there are
+   * none left, so callers can checkpoint the last one as the next cursor.
+   */
+  List<ObjectId> detachBatch(
+      ObjectId userId, RelationshipType type, ObjectId after, int batchSize);
+
+  /**
+   * Total and largest number of peers per type across all users. Scans every user or edge, so it
+   * is meant for a periodic background refresh, not for request handling.
+   */
+  Map<RelationshipType, SetSizes> sizeStats();
+
+  record SetSizes(long total, long max) {}
+
+  enum SendOutcome {
+    SENT,
+    CONNECTION_EXISTS,
+    REQUEST_ALREADY_SENT,
+    REQUEST_ALREADY_RECEIVED,
+    USER_NOT_FOUND,
+    CONFLICT
+  }
+}
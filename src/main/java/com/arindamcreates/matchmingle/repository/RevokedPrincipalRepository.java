@@ -0,0 +1,9 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.model.RevokedPrincipal;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RevokedPrincipalRepository extends MongoRepository<RevokedPrincipal, ObjectId> {}
@@ -0,0 +1,18 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.model.UserDeletionJob;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserDeletionJobRepository extends MongoRepository<UserDeletionJob, ObjectId> {
+
+  List<UserDeletionJob> findByStatusIn(Collection<UserDeletionJob.Status> statuses);
+
+  Optional<UserDeletionJob> findFirstByUserIdAndStatusIn(
+      ObjectId userId, Collection<UserDeletionJob.Status> statuses);
+}
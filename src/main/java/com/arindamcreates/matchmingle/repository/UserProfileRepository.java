@@ -0,0 +1,138 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.dto.PeerProfile;
+import com.arindamcreates.matchmingle.dto.UserProfileProjection;
+import com.arindamcreates.matchmingle.model.User;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+/** Profile reads that only fetch the fields a response needs. */
+@Repository
+@RequiredArgsConstructor
+public class UserProfileRepository {
+
+  private static final String USER_COLLECTION = "User";
+  private static final String CONNECTION_COLLECTION = "Connection";
+
+  private final MongoTemplate mongoTemplate;
+
+  /**
+   * Resolves the target's public profile, the viewer's id and the connection between them in a
+   * single aggregation. The email is only projected when the connection has {@code emailShow}.
+   */
+  public Optional<UserProfileProjection> findProfileForViewer(
+      ObjectId targetId, String viewerEmail) {
+    Aggregation aggregation =
+        Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("_id").is(targetId)),
+            stage(
+                "$lookup",
+                new Document("from", USER_COLLECTION)
+                    .append(
+                        "pipeline",
+                        List.of(
+                            new Document("$match", new Document("email", viewerEmail)),
+                            new Document("$project", new Document("_id", 1))))
+                    .append("as", "viewer")),
+            stage("$set", new Document("viewerId", new Document("$first", "$viewer._id"))),
+            stage("$set", new Document("pairKey", pairKey())),
+            stage(
+                "$lookup",
+                new Document("from", CONNECTION_COLLECTION)
+                    .append("localField", "pairKey")
+                    .append("foreignField", "pairKey")
+                    .append("as", "connection")),
+            stage(
+                "$project",
+                new Document("_id", 0)
+                    .append("firstName", 1)
+                    .append("lastName", 1)
+                    .append("gender", 1)
+                    .append("location", 1)
+                    .append("imageUrl", 1)
+                    .append("tagLine", 1)
+                    .append("summary", 1)
+                    .append("connected", isConnected())
+                    .append("email", emailIfShown())));
+    return Optional.ofNullable(
+        mongoTemplate
+            .aggregate(aggregation, USER_COLLECTION, UserProfileProjection.class)
+            .getUniqueMappedResult());
+  }
+
+  /** Profile of a user for administrators, without the relationship arrays. */
+  public Optional<User> findAdminProfileByEmail(String email) {
+    Query query = new Query(Criteria.where("email").is(email));
+    query.fields().exclude("connections", "incomingRequests", "outgoingRequests");
+    return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+  }
+
+  /** Lightweight profiles of the given users, in no particular order. */
+  public List<PeerProfile> findPeerProfiles(Collection<ObjectId> ids) {
+    Query query = new Query(Criteria.where("_id").in(ids));
+    query.fields().include("firstName", "lastName", "imageUrl", "tagLine");
+    return mongoTemplate.find(query, PeerProfile.class, USER_COLLECTION);
+  }
+
+  /** Public profile of the user with the given email, as exposed over GraphQL. */
+  public Optional<User> findPublicProfileByEmail(String email) {
+    return Optional.ofNullable(
+        mongoTemplate.findOne(publicProfile(Criteria.where("email").is(email)), User.class));
+  }
+
+  /** Public profiles of the given users, in no particular order. */
+  public List<User> findPublicProfiles(Collection<ObjectId> ids) {
+    return mongoTemplate.find(publicProfile(Criteria.where("_id").in(ids)), User.class);
+  }
+
+  private static Query publicProfile(Criteria criteria) {
+    Query query = new Query(criteria);
+    query
+        .fields()
+        .include(
+            "firstName", "lastName", "gender", "location", "imageUrl", "tagLine", "summary");
+    return query;
+  }
+
+  private static Document isConnected() {
+    return new Document("$gt", List.of(new Document("$size", "$connection"), 0));
+  }
+
+  private static Document emailIfShown() {
+    Document emailShown =
+        new Document("$eq", List.of(new Document("$first", "$connection.emailShow"), true));
+    return new Document("$cond", List.of(emailShown, "$email", "$$REMOVE"));
+  }
+
+  /**
+   * Same key as {@link com.arindamcreates.matchmingle.model.Connection#pairKeyOf}, computed
+   * server-side so the connection lookup is a single equality match on the unique pair key. An
+   * unknown viewer yields a key no connection can have.
+   */
+  private static Document pairKey() {
+    Document targetHex = new Document("$toString", "$_id");
+    Document viewerHex = new Document("$toString", "$viewerId");
+    Document key =
+        new Document(
+            "$cond",
+            List.of(
+                new Document("$lt", List.of("$_id", "$viewerId")),
+                new Document("$concat", List.of(targetHex, "_", viewerHex)),
+                new Document("$concat", List.of(viewerHex, "_", targetHex))));
+    return new Document("$ifNull", List.of(key, "-"));
+  }
+
+  private static AggregationOperation stage(String name, Document body) {
+    return context -> new Document(name, body);
+  }
+}
@@ -1,6 +1,7 @@
 package com.arindamcreates.matchmingle.repository;
 
 import com.arindamcreates.matchmingle.model.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.bson.types.ObjectId;
@@ -15,6 +16,28 @@ public interface UserRepository extends MongoRepository<User, ObjectId> {
 
   Optional<User> findByEmail(String userEmail);
 
+  /** Same matches as {@link #findByEmailOrPhone}, without the relationship sets. */
+  @Query(
+      value = "{ $or: [ { 'email': ?0 }, { 'phone': ?1 } ] }",
+      fields = "{ 'connections': 0, 'incomingRequests': 0, 'outgoingRequests': 0 }")
+  List<User> findProfilesByEmailOrPhone(String userEmail, String userPhone);
+
+  @Query(value = "{ '_id': ?0 }", fields = "{ '_id': 1, 'email': 1 }")
+  Optional<User> findIdentityById(ObjectId id);
+
+  @Query(value = "{ 'email': ?0 }", fields = "{ '_id': 1, 'email': 1 }")
+  Optional<User> findIdentityByEmail(String userEmail);
+
+  /** What authentication needs, read through the unique email index. */
+  @Query(value = "{ 'email': ?0 }", fields = "{ 'email': 1, 'role': 1, 'userLocked': 1 }")
+  Optional<User> findPrincipalByEmail(String userEmail);
+
+  @Query(value = "{ 'email': ?0 }", fields = "{ '_id': 1, 'geoPoint': 1 }")
+  Optional<User> findGeoPointByEmail(String userEmail);
+
+  @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ '_id': 1, 'email': 1 }")
+  List<User> findIdentitiesByIdIn(Collection<ObjectId> ids);
+
   @Query("{ 'connections': ?0 }")
   @Update("{ $pull: { 'connections': ?0 }}")
   void removeFromConnections(ObjectId userId);
@@ -0,0 +1,44 @@
+package com.arindamcreates.matchmingle.repository;
+
+import com.arindamcreates.matchmingle.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Sign-in lookups that create the user on first login. The lookup and the insert are one {@code
+ * findAndModify} upsert on the unique {@code email_unique_idx}, so concurrent first logins resolve
+ * to the same user instead of each saving their own.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserSignInRepository {
+
+  private static final FindAndModifyOptions UPSERT =
+      FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+  private final MongoTemplate mongoTemplate;
+
+  /** The user with this email, created with the defaults of a new account when there is none. */
+  public User findOrCreateByEmail(String email) {
+    Query query = new Query(Criteria.where("email").is(email));
+    query.fields().exclude("connections", "incomingRequests", "outgoingRequests");
+    Update defaults =
+        new Update()
+            .setOnInsert("role", "USER")
+            .setOnInsert("userDetailsProvided", false)
+            .setOnInsert("userLocked", false)
+            .setOnInsert("securityVersion", 0L);
+    try {
+      return mongoTemplate.findAndModify(query, defaults, UPSERT, User.class);
+    } catch (DuplicateKeyException ex) {
+      // A concurrent first login inserted the user between our match and insert
+      return mongoTemplate.findAndModify(query, defaults, UPSERT, User.class);
+    }
+  }
+}
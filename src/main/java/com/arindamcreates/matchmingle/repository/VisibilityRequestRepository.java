@@ -1,10 +1,13 @@
 package com.arindamcreates.matchmingle.repository;
 
 import com.arindamcreates.matchmingle.model.VisibilityRequest;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.DeleteQuery;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -16,5 +19,18 @@ public interface VisibilityRequestRepository extends MongoRepository<VisibilityR
   Optional<VisibilityRequest> findBySenderAndReceiverAndType(
       ObjectId sender, ObjectId receiver, String Type);
 
-  List<VisibilityRequest> findBySenderOrReceiver(ObjectId userId, ObjectId userIdAgain);
+  // Each branch of the $or is served by its own sender or receiver index
+  @Query(
+      "{ 'status': 'PENDING', $or: [ { 'sender': ?0, 'receiver': { $in: ?1 } },"
+          + " { 'receiver': ?0, 'sender': { $in: ?1 } } ] }")
+  List<VisibilityRequest> findPendingBetween(ObjectId user, Collection<ObjectId> peers);
+
+  List<VisibilityRequest> findByReceiverAndStatus(
+      ObjectId receiver, VisibilityRequest.RequestStatus status);
+
+  @Query(value = "{ $or: [ { 'sender': ?0 }, { 'receiver': ?0 } ] }", exists = true)
+  boolean existsByUser(ObjectId userId);
+
+  @DeleteQuery("{ $or: [ { 'sender': ?0 }, { 'receiver': ?0 } ] }")
+  long deleteAllByUser(ObjectId userId);
 }
@@ -2,23 +2,26 @@ package com.arindamcreates.matchmingle.service;
 
 import com.arindamcreates.matchmingle.constant.Constants;
 import com.arindamcreates.matchmingle.dto.IdRequest;
+import com.arindamcreates.matchmingle.dto.RelationshipPageResponse;
+import com.arindamcreates.matchmingle.dto.UserDeletionJobResponse;
 import com.arindamcreates.matchmingle.dto.UserResponseForAdmin;
-import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.exception.DataNotFoundException;
+import com.arindamcreates.matchmingle.exception.DomainException;
+import com.arindamcreates.matchmingle.model.DomainEvent;
+import com.arindamcreates.matchmingle.model.RelationshipType;
 import com.arindamcreates.matchmingle.model.User;
-import com.arindamcreates.matchmingle.model.VisibilityRequest;
-import com.arindamcreates.matchmingle.repository.ConnectionRepository;
-import com.arindamcreates.matchmingle.repository.UserRepository;
-import com.arindamcreates.matchmingle.repository.VisibilityRequestRepository;
+import com.arindamcreates.matchmingle.model.UserDeletionJob;
+import com.arindamcreates.matchmingle.repository.RelationshipStore;
+import com.arindamcreates.matchmingle.repository.UserProfileRepository;
 import com.arindamcreates.matchmingle.utils.AuthUtil;
 import jakarta.validation.Valid;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -31,15 +34,22 @@ import org.springframework.stereotype.Service;
 public class AdminService {
   private final UserService userService;
   private final AuthUtil authUtil;
+  private final UserPrincipalCache userPrincipalCache;
+  private final PrincipalRevocationRegistry principalRevocationRegistry;
+  private final UserDeletionJobService userDeletionJobService;
+  private final RelationshipStore relationshipStore;
+  private final UserProfileRepository userProfileRepository;
+  private final VirtualThreadPinningMonitor virtualThreadPinningMonitor;
+  private final DomainEventRelay domainEventRelay;
+  private final SlowQueryMonitor slowQueryMonitor;
   private final MongoTemplate mongoTemplate;
 
-  private static final int BATCH_SIZE = 100;
-  private final ConnectionRepository connectionRepository;
-  private final UserRepository userRepository;
-  private final VisibilityRequestRepository visibilityRequestRepository;
-
-  public UserResponseForAdmin findUserByEmail(String email) {
-    User targetedUser = userService.findUserByEmail(email);
+  public UserResponseForAdmin findUserByEmail(String email, int pageSize) {
+    User targetedUser =
+        userProfileRepository
+            .findAdminProfileByEmail(email)
+            .orElseThrow(() -> new DataNotFoundException("No user exists for requested input"));
+    ObjectId userId = targetedUser.getId();
     return UserResponseForAdmin.builder()
         .firstName(targetedUser.getFirstName())
         .lastName(targetedUser.getLastName())
@@ -51,11 +61,30 @@ public class AdminService {
         .phone(targetedUser.getPhone())
         .email(targetedUser.getEmail())
         .role(targetedUser.getRole())
-        .connections(targetedUser.getConnections())
         .userDetailsProvided(targetedUser.getUserDetailsProvided())
         .userLocked(targetedUser.getUserLocked())
-        .incomingRequests(targetedUser.getIncomingRequests())
-        .outgoingRequests(targetedUser.getOutgoingRequests())
+        .connectionsCount(relationshipStore.count(userId, RelationshipType.CONNECTION))
+        .incomingRequestsCount(relationshipStore.count(userId, RelationshipType.INCOMING_REQUEST))
+        .outgoingRequestsCount(relationshipStore.count(userId, RelationshipType.OUTGOING_REQUEST))
+        .connections(
+            relationshipStore.findPeers(userId, RelationshipType.CONNECTION, null, pageSize))
+        .incomingRequests(
+            relationshipStore.findPeers(userId, RelationshipType.INCOMING_REQUEST, null, pageSize))
+        .outgoingRequests(
+            relationshipStore.findPeers(userId, RelationshipType.OUTGOING_REQUEST, null, pageSize))
+        .build();
+  }
+
+  public RelationshipPageResponse findUserRelationships(
+      String email, RelationshipType type, String after, int pageSize) {
+    ObjectId userId = userService.findUserIdentityByEmail(email).getId();
+    ObjectId cursor = after == null ? null : new ObjectId(after);
+    List<ObjectId> ids = relationshipStore.findPeers(userId, type, cursor, pageSize);
+    return RelationshipPageResponse.builder()
+        .type(type)
+        .totalCount(relationshipStore.count(userId, type))
+        .ids(ids)
+        .nextCursor(ids.size() < pageSize ? null : ids.getLast().toHexString())
         .build();
   }
 
@@ -67,95 +96,49 @@ public class AdminService {
     updateUserLockStatus(idRequest, false);
   }
 
-  public void deleteUserWithBatchProcessing(String uId) {
-    ObjectId userId = new ObjectId(uId);
-    // 1. Find the user to delete
-    User userToDelete = userService.checkUserDoesExist(userId);
-    if (userToDelete.getEmail().equals(authUtil.getCurrentUserEmail())) {
-      throw new IllegalArgumentException(Constants.CANNOT_SELF_DELETE);
-    }
-    List<Connection> connections = connectionRepository.findByUser1OrUser2(userId, userId);
-    if (connections != null && !connections.isEmpty()) {
-      connectionRepository.deleteAll(connections);
-    }
+  public Map<String, Object> getPrincipalCacheStats() {
+    return userPrincipalCache.getStats();
+  }
 
-    List<VisibilityRequest> visibilityRequests =
-        visibilityRequestRepository.findBySenderOrReceiver(userId, userId);
-    if (visibilityRequests != null && !visibilityRequests.isEmpty()) {
-      visibilityRequestRepository.deleteAll(visibilityRequests);
-    }
+  public Map<String, Object> getVirtualThreadPinningStats() {
+    return virtualThreadPinningMonitor.getStats();
+  }
 
-    // 2. Collect all relationships that need to be updated
-    Set<ObjectId> connectionsToUpdate = new HashSet<>(userToDelete.getConnections());
-    Set<ObjectId> incomingToUpdate = new HashSet<>(userToDelete.getIncomingRequests());
-    Set<ObjectId> outgoingToUpdate = new HashSet<>(userToDelete.getOutgoingRequests());
-
-    // 3. Process relationship updates in batches
-    processRelationshipBatches(connectionsToUpdate, userId, "connections");
-    processRelationshipBatches(incomingToUpdate, userId, "outgoingRequests");
-    processRelationshipBatches(outgoingToUpdate, userId, "incomingRequests");
-
-    // 4. Delete the user
-    userRepository.delete(userToDelete);
-
-    // 5. Log summary of operation
-    int totalRelationshipsProcessed =
-        connectionsToUpdate.size() + incomingToUpdate.size() + outgoingToUpdate.size();
-
-    System.out.println(
-        "Successfully deleted user "
-            + userId
-            + ". Cleaned up "
-            + totalRelationshipsProcessed
-            + " relationship references.");
+  public Map<String, Object> getSlowQueryStats(int limit) {
+    return slowQueryMonitor.getStats(limit);
   }
 
-  private void processRelationshipBatches(
-      Set<ObjectId> userIds, ObjectId userIdToRemove, String fieldName) {
-    if (userIds.isEmpty()) {
-      return;
-    }
+  public List<DomainEvent> replayDomainEvents(long after, int limit) {
+    return domainEventRelay.replay(after, limit);
+  }
 
-    List<ObjectId> batch = new ArrayList<>(BATCH_SIZE);
-    int totalProcessed = 0;
-
-    for (ObjectId id : userIds) {
-      batch.add(id);
-
-      // When batch is full or this is the last item, process the batch
-      if (batch.size() >= BATCH_SIZE || totalProcessed == userIds.size() - 1) {
-        updateBatch(batch, userIdToRemove, fieldName);
-        totalProcessed += batch.size();
-        System.out.println(
-            "Processed batch of "
-                + batch.size()
-                + " updates for "
-                + fieldName
-                + ". Progress: "
-                + totalProcessed
-                + "/"
-                + userIds.size());
-        batch.clear();
-      }
-    }
+  public Map<String, Object> getDomainEventRelayStats() {
+    return domainEventRelay.getStats();
+  }
 
-    // Process any remaining items
-    if (!batch.isEmpty()) {
-      updateBatch(batch, userIdToRemove, fieldName);
+  public UserDeletionJobResponse deleteUserWithBatchProcessing(String uId) {
+    User userToDelete = userService.findUserIdentityById(new ObjectId(uId));
+    String loggedInUserEmail = authUtil.getCurrentUserEmail();
+    if (userToDelete.getEmail().equals(loggedInUserEmail)) {
+      throw new IllegalArgumentException(Constants.CANNOT_SELF_DELETE);
     }
+    UserDeletionJob job = userDeletionJobService.submit(userToDelete, loggedInUserEmail);
+    log.info("User deletion job {} submitted for user {}", job.getId(), uId);
+    return UserDeletionJobResponse.from(job);
+  }
+
+  public UserDeletionJobResponse getUserDeletionJob(String jobId) {
+    return UserDeletionJobResponse.from(userDeletionJobService.findJob(new ObjectId(jobId)));
   }
 
-  /** Updates a batch of user documents by pulling the specified user ID from the given field */
-  private void updateBatch(List<ObjectId> userIds, ObjectId userIdToRemove, String fieldName) {
-    Query query = new Query(Criteria.where("_id").in(userIds));
-    Update update = new Update().pull(fieldName, userIdToRemove);
-    mongoTemplate.updateMulti(query, update, User.class);
+  public UserDeletionJobResponse resumeUserDeletionJob(String jobId) {
+    return UserDeletionJobResponse.from(userDeletionJobService.resume(new ObjectId(jobId)));
   }
 
   private void updateUserLockStatus(@Valid IdRequest idRequest, boolean lockStatus) {
     try {
       String loggedInUserEmail = authUtil.getCurrentUserEmail();
-      User user = userService.checkUserDoesExist(new ObjectId(idRequest.getId()));
+      User user = userService.findUserIdentityById(new ObjectId(idRequest.getId()));
 
       if (user.getEmail().equals(loggedInUserEmail)) {
         String errorMessage =
@@ -163,19 +146,29 @@ public class AdminService {
         throw new IllegalArgumentException(errorMessage);
       }
 
-      boolean currentLockStatus = Boolean.TRUE.equals(user.getUserLocked());
-      if (currentLockStatus == lockStatus) {
+      // Only the lock fields are written, guarded on the current lock state, so concurrent
+      // relationship and profile updates of the user are kept.
+      User updated =
+          mongoTemplate.findAndModify(
+              lockedAs(user.getId(), !lockStatus),
+              new Update().set("userLocked", lockStatus).inc("securityVersion", 1),
+              FindAndModifyOptions.options().returnNew(true),
+              User.class);
+      if (updated == null) {
         String errorMessage =
             lockStatus ? Constants.USER_ALREADY_LOCKED : Constants.USER_ALREADY_UNLOCKED;
         throw new IllegalArgumentException(errorMessage);
       }
 
-      user.setUserLocked(lockStatus);
-      userService.saveUser(user);
+      long securityVersion = updated.getSecurityVersion();
+      userPrincipalCache.invalidate(user.getEmail());
+      principalRevocationRegistry.onLockStatusChanged(user.getId(), lockStatus, securityVersion);
 
       String action = lockStatus ? "locked" : "unlocked";
       log.info("User with ID {} has been {}", idRequest.getId(), action);
 
+    } catch (DomainException ex) {
+      throw ex;
     } catch (Exception ex) {
       String action = lockStatus ? "locking" : "unlocking";
       String errorMessage =
@@ -184,4 +177,13 @@ public class AdminService {
       throw new DataAccessResourceFailureException(errorMessage, ex);
     }
   }
+
+  /** Matches the user while it is in the given lock state, returning only its security version. */
+  private static Query lockedAs(ObjectId userId, boolean locked) {
+    Criteria criteria = Criteria.where("_id").is(userId);
+    criteria = locked ? criteria.and("userLocked").is(true) : criteria.and("userLocked").ne(true);
+    Query query = new Query(criteria);
+    query.fields().include("securityVersion");
+    return query;
+  }
 }
@@ -0,0 +1,294 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.model.DomainEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory adjacency of the connection graph for mutual connection counts and friends of friends
+ * suggestions. Users are mapped to dense int ids and each user's connections are kept as a
+ * compressed {@link RoaringBitmap}. Bitmaps are copied on write, so reads never lock. The graph
+ * is loaded from the {@code Connection} collection once the application is ready and is then
+ * kept up to date from the relayed domain events and the delete path, so every instance follows
+ * changes made through any other.
+ */
+@Slf4j
+@Component
+public class ConnectionGraph {
+
+  private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+  private final MongoTemplate mongoTemplate;
+  private final TaskExecutor taskExecutor;
+  private final int maxExpandedConnections;
+  private final Map<ObjectId, Integer> indexes = new ConcurrentHashMap<>();
+  private final Map<Integer, RoaringBitmap> adjacency = new ConcurrentHashMap<>();
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final Set<Long> removedWhileLoading = new HashSet<>(); // Guarded by writeLock
+  private volatile ObjectId[] users = new ObjectId[1024];
+  private volatile int userCount;
+  private volatile boolean loaded;
+
+  public ConnectionGraph(
+      MongoTemplate mongoTemplate,
+      @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+      @Value("${matchmingle.recommendations.max-expanded-connections:2000}")
+          int maxExpandedConnections) {
+    this.mongoTemplate = mongoTemplate;
+    this.taskExecutor = taskExecutor;
+    this.maxExpandedConnections = maxExpandedConnections;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadInBackground() {
+    taskExecutor.execute(this::load);
+  }
+
+  /**
+   * Loads every connection. Updates applied while loading are kept: adds are idempotent, and
+   * removals are recorded and applied again after the merge, since the snapshot may predate them.
+   */
+  public void load() {
+    long start = System.currentTimeMillis();
+    Query query = new Query();
+    query.fields().include("user1", "user2").exclude("_id");
+    Map<Integer, RoaringBitmap> loadedAdjacency = new HashMap<>();
+    long edges = 0;
+    try (Stream<Connection> connections = mongoTemplate.stream(query, Connection.class)) {
+      for (Connection connection : (Iterable<Connection>) connections::iterator) {
+        int a = indexOf(connection.getUser1());
+        int b = indexOf(connection.getUser2());
+        loadedAdjacency.computeIfAbsent(a, key -> new RoaringBitmap()).add(b);
+        loadedAdjacency.computeIfAbsent(b, key -> new RoaringBitmap()).add(a);
+        edges++;
+      }
+    }
+    writeLock.lock();
+    try {
+      loadedAdjacency.forEach(
+          (user, peers) -> {
+            peers.runOptimize();
+            adjacency.merge(user, peers, RoaringBitmap::or);
+          });
+      for (long pair : removedWhileLoading) {
+        int a = (int) (pair >>> 32);
+        int b = (int) pair;
+        updateEdges(a, b, false);
+        updateEdges(b, a, false);
+      }
+      removedWhileLoading.clear();
+      loaded = true;
+    } finally {
+      writeLock.unlock();
+    }
+    log.info(
+        "Connection graph loaded with {} users and {} connections in {} ms",
+        userCount,
+        edges,
+        System.currentTimeMillis() - start);
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /** Relayed at least once and in order; both updates are idempotent. */
+  @EventListener
+  public void apply(DomainEvent event) {
+    switch (event.getType()) {
+      case CONNECTION_ACCEPTED -> connect(event.getActor(), event.getSubject());
+      case CONNECTION_REMOVED -> disconnect(event.getActor(), event.getSubject());
+      default -> {}
+    }
+  }
+
+  public void connect(ObjectId user1, ObjectId user2) {
+    writeLock.lock();
+    try {
+      int a = indexOf(user1);
+      int b = indexOf(user2);
+      if (!loaded) {
+        removedWhileLoading.remove(pairOf(a, b));
+      }
+      updateEdges(a, b, true);
+      updateEdges(b, a, true);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public void disconnect(ObjectId user1, ObjectId user2) {
+    writeLock.lock();
+    try {
+      if (!loaded) {
+        removedWhileLoading.add(pairOf(indexOf(user1), indexOf(user2)));
+      }
+      Integer a = indexes.get(user1);
+      Integer b = indexes.get(user2);
+      if (a == null || b == null) {
+        return;
+      }
+      updateEdges(a, b, false);
+      updateEdges(b, a, false);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public int mutualConnectionCount(ObjectId user1, ObjectId user2) {
+    return RoaringBitmap.andCardinality(connectionsOf(user1), connectionsOf(user2));
+  }
+
+  /**
+   * Top users by number of mutual connections that the user is not connected to yet. For users
+   * with more than {@code max-expanded-connections} connections only that many of them, those
+   * with the fewest connections of their own, are expanded, which bounds the work per request and
+   * favours the more specific signal of small networks.
+   */
+  public List<Suggestion> suggestions(ObjectId userId, int limit) {
+    Integer user = indexes.get(userId);
+    if (user == null) {
+      return List.of();
+    }
+    RoaringBitmap direct = connectionsOf(user.intValue());
+    // userCount is published after users, so every index below it is in the snapshot.
+    int[] counts = new int[userCount];
+    ObjectId[] userSnapshot = users;
+    // Negative counts mark the user and their connections, which are never suggested.
+    counts[user] = Integer.MIN_VALUE;
+    direct.forEach(
+        (int peer) -> {
+          if (peer < counts.length) {
+            counts[peer] = Integer.MIN_VALUE;
+          }
+        });
+
+    int[] touched = new int[256];
+    int touchedSize = 0;
+    for (int friend : expandedConnections(direct)) {
+      IntIterator candidates = connectionsOf(friend).getIntIterator();
+      while (candidates.hasNext()) {
+        int candidate = candidates.next();
+        if (candidate >= counts.length || counts[candidate] < 0) {
+          continue;
+        }
+        if (counts[candidate]++ == 0) {
+          if (touchedSize == touched.length) {
+            touched = Arrays.copyOf(touched, touchedSize * 2);
+          }
+          touched[touchedSize++] = candidate;
+        }
+      }
+    }
+
+    PriorityQueue<int[]> top =
+        new PriorityQueue<>(
+            limit + 1,
+            Comparator.<int[]>comparingInt(entry -> entry[1])
+                .thenComparing(entry -> entry[0], Comparator.reverseOrder()));
+    for (int i = 0; i < touchedSize; i++) {
+      top.offer(new int[] {touched[i], counts[touched[i]]});
+      if (top.size() > limit) {
+        top.poll();
+      }
+    }
+    List<Suggestion> suggestions = new ArrayList<>(top.size());
+    while (!top.isEmpty()) {
+      int[] entry = top.poll();
+      suggestions.add(new Suggestion(userSnapshot[entry[0]], entry[1]));
+    }
+    return suggestions.reversed();
+  }
+
+  private int[] expandedConnections(RoaringBitmap direct) {
+    int[] connections = direct.toArray();
+    if (connections.length <= maxExpandedConnections) {
+      return connections;
+    }
+    return Arrays.stream(connections)
+        .boxed()
+        .sorted(Comparator.comparingInt(peer -> connectionsOf(peer).getCardinality()))
+        .limit(maxExpandedConnections)
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  private RoaringBitmap connectionsOf(ObjectId userId) {
+    Integer user = indexes.get(userId);
+    return user == null ? EMPTY : connectionsOf(user);
+  }
+
+  private RoaringBitmap connectionsOf(int user) {
+    return adjacency.getOrDefault(user, EMPTY);
+  }
+
+  /** Must hold the write lock. The bitmap is replaced, never changed, so readers stay lock-free. */
+  private void updateEdges(int user, int peer, boolean add) {
+    RoaringBitmap current = adjacency.get(user);
+    if (current == null && !add) {
+      return;
+    }
+    RoaringBitmap updated = current == null ? new RoaringBitmap() : current.clone();
+    if (add) {
+      updated.add(peer);
+    } else {
+      updated.remove(peer);
+    }
+    adjacency.put(user, updated);
+  }
+
+  private static long pairOf(int a, int b) {
+    return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+  }
+
+  private int indexOf(ObjectId userId) {
+    Integer existing = indexes.get(userId);
+    if (existing != null) {
+      return existing;
+    }
+    writeLock.lock();
+    try {
+      existing = indexes.get(userId);
+      if (existing != null) {
+        return existing;
+      }
+      int index = userCount;
+      ObjectId[] current = users;
+      if (index == current.length) {
+        current = Arrays.copyOf(current, current.length * 2);
+      }
+      current[index] = userId;
+      users = current;
+      userCount = index + 1;
+      indexes.put(userId, index);
+      return index;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  public record Suggestion(ObjectId userId, int mutualConnections) {}
+}
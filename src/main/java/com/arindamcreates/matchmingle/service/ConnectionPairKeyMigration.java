@@ -0,0 +1,117 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.model.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Backfills {@code pairKey} on connections created before it existed and then ensures its unique
+ * index. When a pair has more than one connection document, the one that already owns the key is
+ * kept, the visibility flags of the others are merged into it and the others are deleted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionPairKeyMigration implements ApplicationRunner {
+
+  private static final String PAIR_KEY = "pairKey";
+
+  private final MongoTemplate mongoTemplate;
+
+  @Value("${matchmingle.connections.pair-key-backfill.batch-size:500}")
+  private int batchSize;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    backfill();
+    mongoTemplate
+        .indexOps(Connection.class)
+        .ensureIndex(
+            new Index().on(PAIR_KEY, Sort.Direction.ASC).named("pair_key_idx").unique().sparse());
+  }
+
+  public long backfill() {
+    Query missing =
+        new Query(Criteria.where(PAIR_KEY).exists(false))
+            .with(Sort.by("_id"))
+            .cursorBatchSize(batchSize);
+    missing.fields().include("user1", "user2", "emailShow", "numberShow");
+
+    long updated = 0;
+    long removed = 0;
+    List<Connection> batch = new ArrayList<>(batchSize);
+    try (Stream<Connection> connections = mongoTemplate.stream(missing, Connection.class)) {
+      for (Connection connection : (Iterable<Connection>) connections::iterator) {
+        batch.add(connection);
+        if (batch.size() >= batchSize) {
+          removed += writeBatch(batch);
+          updated += batch.size();
+          batch.clear();
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      removed += writeBatch(batch);
+      updated += batch.size();
+    }
+    if (updated > 0) {
+      log.info("Backfilled pair keys of {} connections, removed {} duplicates", updated, removed);
+    }
+    return updated;
+  }
+
+  /** Writes the batch in one bulk and returns the number of duplicate connections removed. */
+  private int writeBatch(List<Connection> batch) {
+    Set<String> claimedKeys = new HashSet<>();
+    List<String> batchKeys =
+        batch.stream().map(c -> Connection.pairKeyOf(c.getUser1(), c.getUser2())).toList();
+    Query existing = new Query(Criteria.where(PAIR_KEY).in(batchKeys));
+    existing.fields().include(PAIR_KEY);
+    mongoTemplate.find(existing, Connection.class).forEach(c -> claimedKeys.add(c.getPairKey()));
+
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Connection.class);
+    int duplicates = 0;
+    for (int i = 0; i < batch.size(); i++) {
+      Connection connection = batch.get(i);
+      String pairKey = batchKeys.get(i);
+      Query byId = new Query(Criteria.where("_id").is(connection.getId()));
+      if (claimedKeys.add(pairKey)) {
+        bulk.updateOne(byId, new Update().set(PAIR_KEY, pairKey));
+        continue;
+      }
+      Update merge = new Update();
+      if (Boolean.TRUE.equals(connection.getEmailShow())) {
+        merge.set("emailShow", true);
+      }
+      if (Boolean.TRUE.equals(connection.getNumberShow())) {
+        merge.set("numberShow", true);
+      }
+      if (!merge.getUpdateObject().isEmpty()) {
+        bulk.updateOne(new Query(Criteria.where(PAIR_KEY).is(pairKey)), merge);
+      }
+      bulk.remove(byId);
+      duplicates++;
+    }
+    bulk.execute();
+    return duplicates;
+  }
+}
@@ -0,0 +1,102 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.model.DomainEvent;
+import com.arindamcreates.matchmingle.repository.OutboxRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tails the outbox in batches and publishes every {@link DomainEvent} in sequence order to the
+ * in-process {@code @EventListener}s. The position only moves past an event once all listeners
+ * returned; when one throws, the event is published again on the next run, so delivery is at
+ * least once and listeners must be idempotent. In-process state is rebuilt from the database at
+ * startup, so each instance starts at the end of the outbox, and older events stay available
+ * through {@link #replay}.
+ */
+@Slf4j
+@Component
+public class DomainEventRelay {
+
+  private final OutboxRepository outboxRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final int batchSize;
+  private final Duration gapTimeout;
+  private volatile long position;
+  private long gapDetectedAt;
+
+  public DomainEventRelay(
+      OutboxRepository outboxRepository,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${matchmingle.outbox.relay.batch-size:500}") int batchSize,
+      @Value("${matchmingle.outbox.relay.gap-timeout:PT60S}") Duration gapTimeout) {
+    this.outboxRepository = outboxRepository;
+    this.eventPublisher = eventPublisher;
+    this.batchSize = batchSize;
+    this.gapTimeout = gapTimeout;
+  }
+
+  /** Before the connection graph loads, so no change committed during the load is missed. */
+  @PostConstruct
+  void start() {
+    position = outboxRepository.lastSequence();
+    log.info("Domain event relay starting after sequence {}", position);
+  }
+
+  @Scheduled(fixedDelayString = "${matchmingle.outbox.relay.interval:PT0.2S}")
+  public void relay() {
+    try {
+      List<DomainEvent> batch;
+      do {
+        batch = outboxRepository.findAfter(position, batchSize);
+        for (DomainEvent event : batch) {
+          if (event.getSequence() != position + 1 && !gapExpired(event)) {
+            return;
+          }
+          if (event.getType() != DomainEvent.Type.VOIDED) {
+            eventPublisher.publishEvent(event);
+          }
+          position = event.getSequence();
+          gapDetectedAt = 0;
+        }
+      } while (batch.size() == batchSize);
+    } catch (RuntimeException ex) {
+      log.error("Relaying domain event {} failed, retrying on the next run", position + 1, ex);
+    }
+  }
+
+  /** Events after the given sequence, for consumers catching up on what they missed. */
+  public List<DomainEvent> replay(long after, int limit) {
+    return outboxRepository.findAfter(after, limit).stream()
+        .filter(event -> event.getType() != DomainEvent.Type.VOIDED)
+        .toList();
+  }
+
+  public Map<String, Object> getStats() {
+    return Map.of("position", position, "lastSequence", outboxRepository.lastSequence());
+  }
+
+  /**
+   * Gaps are sequences reserved by transactions that have not committed yet. Rolled back ones are
+   * voided, so a gap only stays open when the appending instance died before committing or
+   * voiding; it is waited for up to the gap timeout, which covers the server's transaction
+   * lifetime.
+   */
+  private boolean gapExpired(DomainEvent event) {
+    long now = System.currentTimeMillis();
+    if (gapDetectedAt == 0) {
+      gapDetectedAt = now;
+    }
+    if (now - gapDetectedAt < gapTimeout.toMillis()) {
+      return false;
+    }
+    log.warn("Skipping missing domain events {} to {}", position + 1, event.getSequence() - 1);
+    return true;
+  }
+}
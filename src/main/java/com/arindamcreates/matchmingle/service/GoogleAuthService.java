@@ -1,12 +1,19 @@
 package com.arindamcreates.matchmingle.service;
 
-import com.arindamcreates.matchmingle.exception.DataNotFoundException;
 import com.arindamcreates.matchmingle.model.User;
-import com.arindamcreates.matchmingle.repository.UserRepository;
+import com.arindamcreates.matchmingle.repository.UserSignInRepository;
 import com.arindamcreates.matchmingle.utils.JwtUtil;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,6 +22,8 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -30,17 +39,46 @@ public class GoogleAuthService {
   @Value("${spring.security.oauth2.client.registration.google.client-secret}")
   private String clientSecret;
 
+  @Value("${matchmingle.google.token-uri:https://oauth2.googleapis.com/token}")
+  private String tokenEndpoint;
+
   private final RestTemplate restTemplate;
 
-  private final UserDetailsServiceImpl userDetailsService;
+  private final CircuitBreaker googleOAuthCircuitBreaker;
+
+  private final JwtDecoder googleIdTokenDecoder;
 
-  private final UserRepository userRepository;
+  private final UserSignInRepository userSignInRepository;
 
   private final JwtUtil jwtUtil;
 
+  private final MeterRegistry meterRegistry;
+
+  private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+
+  /** The callback's steps, each timed as {@code matchmingle.oauth.google.callback{stage}}. */
+  private enum Stage {
+    TOKEN_EXCHANGE,
+    ID_TOKEN_VERIFY,
+    USER_LOOKUP,
+    JWT_ISSUE
+  }
+
+  @PostConstruct
+  void registerTimers() {
+    for (Stage stage : Stage.values()) {
+      stageTimers.put(
+          stage,
+          Timer.builder("matchmingle.oauth.google.callback")
+              .description("Google sign-in callback latency per stage")
+              .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+              .register(meterRegistry));
+    }
+  }
+
   public ResponseEntity<?> handleGoogleCallback(String code) {
+    long start = System.nanoTime();
     try {
-      String tokenEndpoint = "https://oauth2.googleapis.com/token";
       MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
       params.add("code", code);
       params.add("client_id", clientId);
@@ -51,32 +89,34 @@ public class GoogleAuthService {
       headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
       HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
       ResponseEntity<Map> tokenResponse =
-          restTemplate.postForEntity(tokenEndpoint, request, Map.class);
+          googleOAuthCircuitBreaker.executeSupplier(
+              () -> restTemplate.postForEntity(tokenEndpoint, request, Map.class));
+      start = recordStage(Stage.TOKEN_EXCHANGE, start);
       String idToken = (String) Objects.requireNonNull(tokenResponse.getBody()).get("id_token");
-      String userInfoUrl = "https://oauth2.googleapis.com/tokeninfo?id_token=" + idToken;
-      ResponseEntity<Map> userInfoResponse = restTemplate.getForEntity(userInfoUrl, Map.class);
-      if (userInfoResponse.getStatusCode() == HttpStatus.OK) {
-        Map<String, Object> userInfo = userInfoResponse.getBody();
-        String email = (String) Objects.requireNonNull(userInfo).get("email");
-        try {
-          userDetailsService.loadUserByUsername(email);
-        } catch (DataNotFoundException ex) {
-          User user =
-              User.builder()
-                  .email(email)
-                  .role("USER")
-                  .userDetailsProvided(false)
-                  .userLocked(false)
-                  .build();
-          userRepository.save(user);
-        }
-        String jwtToken = jwtUtil.generateToken(email);
-        return ResponseEntity.ok(Collections.singletonMap("token", jwtToken));
-      }
+      // Verified locally against Google's cached signing keys instead of calling tokeninfo
+      String email = googleIdTokenDecoder.decode(idToken).getClaimAsString("email");
+      start = recordStage(Stage.ID_TOKEN_VERIFY, start);
+      User user = userSignInRepository.findOrCreateByEmail(email);
+      start = recordStage(Stage.USER_LOOKUP, start);
+      String jwtToken = jwtUtil.generateToken(user);
+      recordStage(Stage.JWT_ISSUE, start);
+      return ResponseEntity.ok(Collections.singletonMap("token", jwtToken));
+    } catch (JwtException e) {
+      log.warn("Rejected Google ID token: {}", e.getMessage());
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    } catch (CallNotPermittedException e) {
+      log.warn("Google OAuth circuit breaker is open");
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
     } catch (Exception e) {
       log.error("Exception occurred while handleGoogleCallback ", e);
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
     }
   }
+
+  /** Records the stage that started at {@code startNanos} and returns when the next one starts. */
+  private long recordStage(Stage stage, long startNanos) {
+    long now = System.nanoTime();
+    stageTimers.get(stage).record(now - startNanos, TimeUnit.NANOSECONDS);
+    return now;
+  }
 }
@@ -0,0 +1,165 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.dto.NearbyUser;
+import com.arindamcreates.matchmingle.dto.NearbyUserResponse;
+import com.arindamcreates.matchmingle.exception.DataNotFoundException;
+import com.arindamcreates.matchmingle.exception.InvalidStatusException;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.repository.NearbyUserRepository;
+import com.arindamcreates.matchmingle.repository.UserRepository;
+import com.arindamcreates.matchmingle.utils.AuthUtil;
+import jakarta.annotation.PostConstruct;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * "People near me" around the caller's shared position. Callers pick one of the configured
+ * distance buckets as the radius, and each result only reveals the smallest bucket it falls into.
+ * The cursor holds the exact distance and id of the last result, so it is sealed with AES-GCM
+ * under a key derived from {@code matchmingle.nearby.cursor-key}, the JWT secret by default. It is
+ * bound to the caller and only handed out for full pages.
+ */
+@Service
+@RequiredArgsConstructor
+public class NearbyUserService {
+
+  private static final double METERS_PER_KM = 1000.0;
+  private static final char CURSOR_SEPARATOR = '_';
+  private static final String CURSOR_CIPHER = "AES/GCM/NoPadding";
+  private static final int GCM_IV_BYTES = 12;
+  private static final int GCM_TAG_BITS = 128;
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final AuthUtil authUtil;
+  private final UserRepository userRepository;
+  private final NearbyUserRepository nearbyUserRepository;
+
+  /** Ascending radii in km. */
+  @Value("${matchmingle.nearby.distance-buckets-km:1,5,10,25,50,100}")
+  private int[] distanceBucketsKm;
+
+  @Value("${matchmingle.nearby.cursor-key:${jwt.secret.key}}")
+  private String cursorSecret;
+
+  private SecretKey cursorKey;
+
+  @PostConstruct
+  void initCursorKey() throws NoSuchAlgorithmException {
+    byte[] digest =
+        MessageDigest.getInstance("SHA-256")
+            .digest(("nearby-cursor:" + cursorSecret).getBytes(StandardCharsets.UTF_8));
+    cursorKey = new SecretKeySpec(digest, "AES");
+  }
+
+  public NearbyUserResponse findNearby(int withinKm, String after, int limit) {
+    if (Arrays.stream(distanceBucketsKm).noneMatch(bucket -> bucket == withinKm)) {
+      throw new InvalidStatusException(
+          "Distance must be one of " + Arrays.toString(distanceBucketsKm) + " km");
+    }
+    User caller =
+        userRepository
+            .findGeoPointByEmail(authUtil.getCurrentUserEmail())
+            .orElseThrow(() -> new DataNotFoundException("No user exists for requested input"));
+    if (caller.getGeoPoint() == null) {
+      throw new InvalidStatusException("Share your location to discover people nearby");
+    }
+    Double afterDistance = null;
+    ObjectId afterId = null;
+    if (after != null) {
+      String[] cursor = openCursor(caller.getId(), after);
+      afterDistance = parseDistance(cursor[0]);
+      afterId = new ObjectId(cursor[1]);
+    }
+    List<NearbyUser> hits =
+        nearbyUserRepository.findNearby(
+            caller.getId(),
+            caller.getGeoPoint(),
+            withinKm * METERS_PER_KM,
+            afterDistance,
+            afterId,
+            limit);
+    hits.forEach(hit -> hit.setWithinKm(bucketOf(hit.getDistance())));
+    return NearbyUserResponse.builder()
+        .results(hits)
+        .nextCursor(hits.size() < limit ? null : cursorOf(caller.getId(), hits.getLast()))
+        .build();
+  }
+
+  private String cursorOf(ObjectId callerId, NearbyUser hit) {
+    String cursor =
+        callerId.toHexString()
+            + CURSOR_SEPARATOR
+            + hit.getDistance()
+            + CURSOR_SEPARATOR
+            + hit.getId();
+    byte[] iv = new byte[GCM_IV_BYTES];
+    RANDOM.nextBytes(iv);
+    try {
+      Cipher cipher = Cipher.getInstance(CURSOR_CIPHER);
+      cipher.init(Cipher.ENCRYPT_MODE, cursorKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+      byte[] sealed = cipher.doFinal(cursor.getBytes(StandardCharsets.UTF_8));
+      byte[] token = ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array();
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Cannot seal the nearby cursor", ex);
+    }
+  }
+
+  /** Returns the distance and id sealed into a cursor handed out to the same caller. */
+  private String[] openCursor(ObjectId callerId, String after) {
+    try {
+      byte[] token = Base64.getUrlDecoder().decode(after);
+      if (token.length <= GCM_IV_BYTES) {
+        throw new InvalidStatusException("Invalid cursor format");
+      }
+      Cipher cipher = Cipher.getInstance(CURSOR_CIPHER);
+      cipher.init(
+          Cipher.DECRYPT_MODE,
+          cursorKey,
+          new GCMParameterSpec(GCM_TAG_BITS, token, 0, GCM_IV_BYTES));
+      String cursor =
+          new String(
+              cipher.doFinal(token, GCM_IV_BYTES, token.length - GCM_IV_BYTES),
+              StandardCharsets.UTF_8);
+      String[] parts = cursor.split(String.valueOf(CURSOR_SEPARATOR));
+      if (parts.length != 3 || !parts[0].equals(callerId.toHexString())) {
+        throw new InvalidStatusException("Invalid cursor format");
+      }
+      return new String[] {parts[1], parts[2]};
+    } catch (IllegalArgumentException | GeneralSecurityException ex) {
+      throw new InvalidStatusException("Invalid cursor format");
+    }
+  }
+
+  private int bucketOf(double distance) {
+    for (int bucket : distanceBucketsKm) {
+      if (distance <= bucket * METERS_PER_KM) {
+        return bucket;
+      }
+    }
+    return distanceBucketsKm[distanceBucketsKm.length - 1];
+  }
+
+  private static double parseDistance(String distance) {
+    try {
+      return Double.parseDouble(distance);
+    } catch (NumberFormatException ex) {
+      throw new InvalidStatusException("Invalid cursor format");
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.model.RevokedPrincipal;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.repository.RevokedPrincipalRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory view of principals whose claim-bearing tokens must be rejected: locked users, deleted
+ * users and tokens issued before the current security version of a user. Lets {@code JwtFilter}
+ * authorise from token claims alone, without reading the user document.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PrincipalRevocationRegistry {
+
+  private final MongoTemplate mongoTemplate;
+  private final RevokedPrincipalRepository revokedPrincipalRepository;
+
+  @Value("${jwt.claims-authorization.enabled:false}")
+  private boolean claimsAuthorizationEnabled;
+
+  private final Set<String> lockedUserIds = ConcurrentHashMap.newKeySet();
+  private final Set<String> deletedUserIds = ConcurrentHashMap.newKeySet();
+  private final Map<String, Long> minimumSecurityVersions = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  void rebuild() {
+    if (!claimsAuthorizationEnabled) {
+      return;
+    }
+    Query lockedQuery = new Query(Criteria.where("userLocked").is(true));
+    lockedQuery.fields().include("_id");
+    try (Stream<User> lockedUsers = mongoTemplate.stream(lockedQuery, User.class)) {
+      lockedUsers.forEach(user -> lockedUserIds.add(user.getId().toHexString()));
+    }
+
+    Query versionedQuery = new Query(Criteria.where("securityVersion").gt(0));
+    versionedQuery.fields().include("_id").include("securityVersion");
+    try (Stream<User> versionedUsers = mongoTemplate.stream(versionedQuery, User.class)) {
+      versionedUsers.forEach(
+          user ->
+              minimumSecurityVersions.put(user.getId().toHexString(), user.getSecurityVersion()));
+    }
+
+    revokedPrincipalRepository
+        .findAll()
+        .forEach(revoked -> deletedUserIds.add(revoked.getId().toHexString()));
+
+    log.info(
+        "Principal revocation registry rebuilt with {} locked, {} deleted and {} versioned users",
+        lockedUserIds.size(),
+        deletedUserIds.size(),
+        minimumSecurityVersions.size());
+  }
+
+  public boolean isAuthorized(String userId, long securityVersion) {
+    return !lockedUserIds.contains(userId)
+        && !deletedUserIds.contains(userId)
+        && securityVersion >= minimumSecurityVersions.getOrDefault(userId, 0L);
+  }
+
+  public void onLockStatusChanged(ObjectId userId, boolean locked, long securityVersion) {
+    String id = userId.toHexString();
+    minimumSecurityVersions.put(id, securityVersion);
+    if (locked) {
+      lockedUserIds.add(id);
+    } else {
+      lockedUserIds.remove(id);
+    }
+  }
+
+  public void onUserDeleted(ObjectId userId, String email) {
+    deletedUserIds.add(userId.toHexString());
+    revokedPrincipalRepository.save(
+        RevokedPrincipal.builder()
+            .id(userId)
+            .email(email)
+            .revokedAt(new Date())
+            .build());
+  }
+}
@@ -0,0 +1,66 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.dto.ProfileSearchHit;
+import com.arindamcreates.matchmingle.dto.ProfileSearchResponse;
+import com.arindamcreates.matchmingle.exception.InvalidStatusException;
+import com.arindamcreates.matchmingle.repository.ProfileSearchRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+/**
+ * Profile search by location, gender and free text. The cursor is the hex id of the last hit, or
+ * {@code <score>_<id>} for text searches, and is only handed out when the page is full.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProfileSearchService {
+
+  private static final char CURSOR_SEPARATOR = '_';
+
+  private final ProfileSearchRepository profileSearchRepository;
+
+  public ProfileSearchResponse search(
+      String location, String gender, String text, String after, int limit) {
+    String locationFilter = StringUtils.hasText(location) ? location.trim() : null;
+    String genderFilter = StringUtils.hasText(gender) ? gender.trim().toUpperCase() : null;
+    int separator = after == null ? -1 : after.indexOf(CURSOR_SEPARATOR);
+    List<ProfileSearchHit> hits;
+    if (StringUtils.hasText(text)) {
+      if (after != null && separator < 0) {
+        throw new InvalidStatusException("Cursor does not belong to a text search");
+      }
+      Double afterScore = after == null ? null : parseScore(after.substring(0, separator));
+      ObjectId afterId = after == null ? null : new ObjectId(after.substring(separator + 1));
+      hits =
+          profileSearchRepository.searchText(
+              text.trim(), locationFilter, genderFilter, afterScore, afterId, limit);
+    } else {
+      if (separator >= 0) {
+        throw new InvalidStatusException("Cursor belongs to a text search");
+      }
+      ObjectId afterId = after == null ? null : new ObjectId(after);
+      hits = profileSearchRepository.search(locationFilter, genderFilter, afterId, limit);
+    }
+    return ProfileSearchResponse.builder()
+        .results(hits)
+        .nextCursor(hits.size() < limit ? null : cursorOf(hits.getLast()))
+        .build();
+  }
+
+  private static String cursorOf(ProfileSearchHit hit) {
+    return hit.getScore() == null
+        ? hit.getId()
+        : hit.getScore().toString() + CURSOR_SEPARATOR + hit.getId();
+  }
+
+  private static double parseScore(String score) {
+    try {
+      return Double.parseDouble(score);
+    } catch (NumberFormatException ex) {
+      throw new InvalidStatusException("Invalid cursor format");
+    }
+  }
+}
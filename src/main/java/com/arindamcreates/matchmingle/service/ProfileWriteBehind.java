@@ -0,0 +1,170 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.dto.UserRequest;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.repository.ProfileUpdateRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies profile edits as partial updates, optionally coalescing them in memory first.
+ *
+ * <p>With {@code matchmingle.profile.write-behind.enabled=false}, the default, every edit is
+ * written before the request returns, with the write concern of {@link ProfileUpdateRepository}.
+ * When enabled, an edit is acknowledged once queued and all edits a user makes within one {@code
+ * flush-interval} are merged into a single write. A crash can lose up to one interval of
+ * acknowledged edits; a graceful shutdown flushes everything. At most {@code max-pending} users
+ * are queued, beyond that edits are written directly. Edits that change the phone are always
+ * written directly, after the user's queued edit, so {@code phone_unique_idx} rejects a taken
+ * number before the edit is acknowledged and a queued edit can never fail on it. Reads other than
+ * the user's own next edit see the change once it is flushed.
+ */
+@Slf4j
+@Component
+public class ProfileWriteBehind {
+
+  private static final String PHONE = "phone";
+
+  private final ProfileUpdateRepository profileUpdateRepository;
+  private final boolean enabled;
+  private final int maxPending;
+  private final ConcurrentMap<ObjectId, PendingEdit> pending = new ConcurrentHashMap<>();
+  private final ReadWriteLock shutdownLock = new ReentrantReadWriteLock();
+  private boolean closed;
+
+  public ProfileWriteBehind(
+      ProfileUpdateRepository profileUpdateRepository,
+      @Value("${matchmingle.profile.write-behind.enabled:false}") boolean enabled,
+      @Value("${matchmingle.profile.write-behind.max-pending:10000}") int maxPending) {
+    this.profileUpdateRepository = profileUpdateRepository;
+    this.enabled = enabled;
+    this.maxPending = maxPending;
+  }
+
+  /**
+   * Applies the request to the user's profile, on top of any edit still queued for them. Returns
+   * the updated profile, or empty when a direct write found the profile changed since {@code
+   * current} was read, in which case the caller reads it again and retries.
+   */
+  public Optional<User> update(User current, UserRequest request) {
+    if (enabled) {
+      shutdownLock.readLock().lock();
+      try {
+        if (!closed) {
+          User queued = enqueue(current, request);
+          if (queued != null) {
+            return Optional.of(queued);
+          }
+        }
+      } finally {
+        shutdownLock.readLock().unlock();
+      }
+      PendingEdit edit = pending.remove(current.getId());
+      if (edit != null) {
+        // Written first so the direct write below finds the version moved and starts over
+        write(current.getId(), edit);
+      }
+    }
+    User updated = User.updateUserFrom(current, request);
+    Map<String, Object> changes = User.profileChanges(current, updated);
+    if (changes.isEmpty()
+        || profileUpdateRepository.applyChanges(
+            current.getId(), current.getProfileVersion(), changes)) {
+      return Optional.of(updated);
+    }
+    return Optional.empty();
+  }
+
+  /** Queues the edit and returns the queued profile, or null when it has to be written directly. */
+  private User enqueue(User current, UserRequest request) {
+    User[] queued = new User[1];
+    pending.compute(
+        current.getId(),
+        (userId, edit) -> {
+          User base = edit == null ? current : edit.profile;
+          User updated = User.updateUserFrom(base, request);
+          Map<String, Object> changes = User.profileChanges(base, updated);
+          if (changes.containsKey(PHONE) || (edit == null && pending.size() >= maxPending)) {
+            return edit;
+          }
+          queued[0] = updated;
+          if (edit == null) {
+            return changes.isEmpty() ? null : new PendingEdit(updated, changes);
+          }
+          return edit.merge(updated, changes);
+        });
+    return queued[0];
+  }
+
+  @Scheduled(fixedDelayString = "${matchmingle.profile.write-behind.flush-interval:PT0.5S}")
+  public void flush() {
+    for (ObjectId userId : pending.keySet()) {
+      PendingEdit edit = pending.remove(userId);
+      if (edit != null) {
+        write(userId, edit);
+      }
+    }
+  }
+
+  /** Edits queued before the lock was taken are flushed, later ones are written directly. */
+  @PreDestroy
+  void close() {
+    shutdownLock.writeLock().lock();
+    try {
+      closed = true;
+    } finally {
+      shutdownLock.writeLock().unlock();
+    }
+    flush();
+    if (!pending.isEmpty()) {
+      log.error("{} queued profile edits could not be written on shutdown", pending.size());
+    }
+  }
+
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * The queued values are the user's latest, not increments, so they are written over whatever
+   * version another instance left the profile at. A failed write is queued again, under any edit
+   * the user made since.
+   */
+  private void write(ObjectId userId, PendingEdit edit) {
+    try {
+      if (!profileUpdateRepository.applyLatestChanges(userId, edit.changes)) {
+        log.debug("Discarding queued profile edit for deleted user {}", userId);
+      }
+    } catch (RuntimeException ex) {
+      log.error("Writing queued profile edit for {} failed, retrying", userId, ex);
+      pending.merge(userId, edit, (newer, older) -> older.merge(newer.profile, newer.changes));
+    }
+  }
+
+  private static class PendingEdit {
+    private User profile;
+    private final Map<String, Object> changes;
+
+    private PendingEdit(User profile, Map<String, Object> changes) {
+      this.profile = profile;
+      this.changes = new LinkedHashMap<>(changes);
+    }
+
+    private PendingEdit merge(User updated, Map<String, Object> newerChanges) {
+      profile = updated;
+      changes.putAll(newerChanges);
+      return this;
+    }
+  }
+}
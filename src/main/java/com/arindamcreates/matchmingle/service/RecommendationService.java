@@ -0,0 +1,62 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.dto.PeerProfile;
+import com.arindamcreates.matchmingle.dto.Recommendation;
+import com.arindamcreates.matchmingle.repository.UserProfileRepository;
+import com.arindamcreates.matchmingle.service.ConnectionGraph.Suggestion;
+import com.arindamcreates.matchmingle.utils.AuthUtil;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+
+/** Friends of friends suggestions and mutual connections, served from the connection graph. */
+@Service
+@RequiredArgsConstructor
+public class RecommendationService {
+
+  private final AuthUtil authUtil;
+  private final UserService userService;
+  private final ConnectionGraph connectionGraph;
+  private final UserProfileRepository userProfileRepository;
+
+  /** Suggestions ranked by mutual connections, joined with their profiles in one query. */
+  public List<Recommendation> recommend(int limit) {
+    ObjectId userId = currentUserId();
+    List<Suggestion> suggestions = connectionGraph.suggestions(userId, limit);
+    if (suggestions.isEmpty()) {
+      return List.of();
+    }
+    Map<String, PeerProfile> profiles =
+        userProfileRepository
+            .findPeerProfiles(suggestions.stream().map(Suggestion::userId).toList())
+            .stream()
+            .collect(Collectors.toMap(PeerProfile::getId, Function.identity()));
+    return suggestions.stream()
+        .filter(suggestion -> profiles.containsKey(suggestion.userId().toHexString()))
+        .map(
+            suggestion -> {
+              PeerProfile profile = profiles.get(suggestion.userId().toHexString());
+              return Recommendation.builder()
+                  .id(profile.getId())
+                  .firstName(profile.getFirstName())
+                  .lastName(profile.getLastName())
+                  .imageUrl(profile.getImageUrl())
+                  .tagLine(profile.getTagLine())
+                  .mutualConnections(suggestion.mutualConnections())
+                  .build();
+            })
+        .toList();
+  }
+
+  public int countMutualConnections(String id) {
+    return connectionGraph.mutualConnectionCount(currentUserId(), new ObjectId(id));
+  }
+
+  private ObjectId currentUserId() {
+    return userService.findUserIdentityByEmail(authUtil.getCurrentUserEmail()).getId();
+  }
+}
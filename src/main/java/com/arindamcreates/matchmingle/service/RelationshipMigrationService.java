@@ -0,0 +1,168 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.model.Relationship;
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import com.arindamcreates.matchmingle.model.User;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Copies the embedded relationship arrays of every user into the {@code relationships} edge
+ * collection. Users are streamed one at a time and edges are written as idempotent upserts in
+ * unordered bulk batches, so the job can simply be re-run after an interruption. Outgoing requests
+ * get their request pair key; a pair with requests pending in both directions is reported and its
+ * users keep their arrays. The arrays are only unset while the edge store is the one in use.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "matchmingle.relationships.migration.enabled", havingValue = "true")
+public class RelationshipMigrationService implements ApplicationRunner {
+
+  private final MongoTemplate mongoTemplate;
+
+  @Value("${matchmingle.relationships.migration.batch-size:1000}")
+  private int batchSize;
+
+  @Value("${matchmingle.relationships.migration.unset-embedded:false}")
+  private boolean unsetEmbedded;
+
+  @Value("${matchmingle.relationships.storage:embedded}")
+  private String storage;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    migrate();
+  }
+
+  public long migrate() {
+    if (unsetEmbedded && !"edge".equals(storage)) {
+      throw new IllegalStateException(
+          "Embedded relationships can only be unset with matchmingle.relationships.storage=edge");
+    }
+    Query query =
+        new Query(
+                new Criteria()
+                    .orOperator(
+                        Criteria.where("connections.0").exists(true),
+                        Criteria.where("incomingRequests.0").exists(true),
+                        Criteria.where("outgoingRequests.0").exists(true)))
+            .with(Sort.by("_id"))
+            .cursorBatchSize(batchSize);
+    query.fields().include("connections", "incomingRequests", "outgoingRequests");
+
+    long migratedEdges = 0;
+    long migratedUsers = 0;
+    BatchWriter writer = new BatchWriter();
+    try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+      for (User user : (Iterable<User>) users::iterator) {
+        migratedEdges +=
+            writer.add(user.getId(), RelationshipType.CONNECTION, user.getConnections());
+        migratedEdges +=
+            writer.add(user.getId(), RelationshipType.INCOMING_REQUEST, user.getIncomingRequests());
+        migratedEdges +=
+            writer.add(user.getId(), RelationshipType.OUTGOING_REQUEST, user.getOutgoingRequests());
+        writer.completeUser(user.getId());
+        migratedUsers++;
+      }
+    }
+    writer.flush();
+    log.info("Migrated {} relationship edges of {} users", migratedEdges, migratedUsers);
+    return migratedEdges;
+  }
+
+  /** Buffers edge upserts and flushes them every {@code batchSize} operations. */
+  private class BatchWriter {
+    private BulkOperations bulk = newBulk();
+    private final List<ObjectId> bulkOwners = new ArrayList<>();
+    private final List<ObjectId> completedUsers = new ArrayList<>();
+    private final Set<ObjectId> incompleteUsers = new HashSet<>();
+
+    int add(ObjectId owner, RelationshipType type, Set<ObjectId> peers) {
+      if (peers == null) {
+        return 0;
+      }
+      for (ObjectId peer : peers) {
+        Query edge =
+            new Query(Criteria.where("owner").is(owner).and("type").is(type).and("peer").is(peer));
+        Update update = new Update().setOnInsert("createdAt", LocalDateTime.now());
+        if (type == RelationshipType.OUTGOING_REQUEST) {
+          // Set rather than set on insert, so edges copied by an earlier run get the key too.
+          update.set("requestPairKey", Connection.pairKeyOf(owner, peer));
+        }
+        bulk.upsert(edge, update);
+        bulkOwners.add(owner);
+        if (bulkOwners.size() >= batchSize) {
+          flush();
+        }
+      }
+      return peers.size();
+    }
+
+    void completeUser(ObjectId userId) {
+      completedUsers.add(userId);
+      if (completedUsers.size() >= batchSize) {
+        flush();
+      }
+    }
+
+    void flush() {
+      if (!bulkOwners.isEmpty()) {
+        execute();
+        bulk = newBulk();
+        bulkOwners.clear();
+      }
+      // Arrays are only dropped once every edge of those users has been written.
+      completedUsers.removeAll(incompleteUsers);
+      if (unsetEmbedded && !completedUsers.isEmpty()) {
+        mongoTemplate.updateMulti(
+            new Query(Criteria.where("_id").in(completedUsers)),
+            new Update().unset("connections").unset("incomingRequests").unset("outgoingRequests"),
+            User.class);
+      }
+      completedUsers.clear();
+    }
+
+    /** Writes the batch, keeping the owners of requests that cross another request. */
+    private void execute() {
+      try {
+        bulk.execute();
+      } catch (BulkOperationException ex) {
+        for (BulkWriteError error : ex.getErrors()) {
+          if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+            throw ex;
+          }
+          ObjectId owner = bulkOwners.get(error.getIndex());
+          log.warn("User {} has a request crossing another one, resolve it by hand", owner);
+          incompleteUsers.add(owner);
+        }
+      }
+    }
+
+    private BulkOperations newBulk() {
+      return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Relationship.class);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import com.arindamcreates.matchmingle.repository.LeaseRepository;
+import com.arindamcreates.matchmingle.repository.RelationshipStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * How large relationship sets grow, per type: {@code matchmingle.relationships.set.size.total}
+ * and {@code matchmingle.relationships.set.size.max}. The sizes need a full scan, so every {@code
+ * matchmingle.metrics.relationship-sizes.refresh-interval} only the instance holding the {@code
+ * relationship-sizes} lease computes them and stores them in {@code metric_snapshots}. Every
+ * instance then reads that snapshot into its gauges, and a scrape only reads the last values.
+ */
+@Slf4j
+@Component
+public class RelationshipSizeMetrics {
+
+  private static final String SNAPSHOTS = "metric_snapshots";
+  private static final String NAME = "relationship-sizes";
+
+  private final RelationshipStore relationshipStore;
+  private final LeaseRepository leaseRepository;
+  private final MongoTemplate mongoTemplate;
+  private final Duration refreshInterval;
+  private final Map<RelationshipType, AtomicLong> totals = new EnumMap<>(RelationshipType.class);
+  private final Map<RelationshipType, AtomicLong> maxima = new EnumMap<>(RelationshipType.class);
+
+  public RelationshipSizeMetrics(
+      RelationshipStore relationshipStore,
+      LeaseRepository leaseRepository,
+      MongoTemplate mongoTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${matchmingle.metrics.relationship-sizes.refresh-interval:PT10M}")
+          Duration refreshInterval) {
+    this.relationshipStore = relationshipStore;
+    this.leaseRepository = leaseRepository;
+    this.mongoTemplate = mongoTemplate;
+    this.refreshInterval = refreshInterval;
+    for (RelationshipType type : RelationshipType.values()) {
+      totals.put(type, gauge(meterRegistry, "total", "Peers of this type over all users", type));
+      maxima.put(type, gauge(meterRegistry, "max", "Most peers of this type on one user", type));
+    }
+  }
+
+  @Scheduled(
+      fixedDelayString = "${matchmingle.metrics.relationship-sizes.refresh-interval:PT10M}")
+  public void refresh() {
+    try {
+      // Held for two intervals, so another instance takes over after the leader missed one
+      if (leaseRepository.tryAcquire(NAME, refreshInterval.multipliedBy(2))) {
+        Document snapshot = new Document("_id", NAME).append("refreshedAt", LocalDateTime.now());
+        relationshipStore
+            .sizeStats()
+            .forEach(
+                (type, sizes) ->
+                    snapshot.append(
+                        type.name(),
+                        new Document("total", sizes.total()).append("max", sizes.max())));
+        mongoTemplate.save(snapshot, SNAPSHOTS);
+      }
+      Document snapshot =
+          mongoTemplate.findOne(
+              new Query(Criteria.where("_id").is(NAME)), Document.class, SNAPSHOTS);
+      if (snapshot == null) {
+        return;
+      }
+      for (RelationshipType type : RelationshipType.values()) {
+        Document sizes = snapshot.get(type.name(), Document.class);
+        if (sizes != null) {
+          totals.get(type).set(sizes.get("total", Number.class).longValue());
+          maxima.get(type).set(sizes.get("max", Number.class).longValue());
+        }
+      }
+    } catch (DataAccessException ex) {
+      log.warn("Refreshing relationship set sizes failed: {}", ex.getMessage());
+    }
+  }
+
+  private static AtomicLong gauge(
+      MeterRegistry meterRegistry, String statistic, String description, RelationshipType type) {
+    AtomicLong value = new AtomicLong();
+    Gauge.builder("matchmingle.relationships.set.size." + statistic, value, AtomicLong::get)
+        .description(description)
+        .tag("type", type.name().toLowerCase(Locale.ROOT))
+        .register(meterRegistry);
+    return value;
+  }
+}
@@ -0,0 +1,381 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.config.RepositoryMetricsPostProcessor;
+import com.mongodb.MongoException;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records Mongo commands slower than {@code matchmingle.mongo.slow-query.threshold}, grouped by
+ * shape: the command, its collection and its filter, sort or pipeline with every value replaced
+ * by {@code ?}, so no user data reaches the log or the admin API. Each shape keeps its count and
+ * a window of recent durations for percentiles, and names the repository method that sent it.
+ *
+ * <p>Commands are keyed by name, collection, repository method and a hash of the field names and
+ * operators of their filter, which is read without copying anything. The redacted shape is built
+ * once per key, at most {@code max-shapes} of them, so a command that repeats a known key costs a
+ * map lookup and never renders JSON.
+ *
+ * <p>With {@code matchmingle.mongo.explain.enabled=true}, meant for dev and test, the first command
+ * of each key is also explained in the background and plans that scan the whole collection are
+ * reported, so a query that misses its index shows up on the first run instead of in production.
+ */
+@Slf4j
+@Component
+public class SlowQueryMonitor implements CommandListener {
+
+  private static final Set<String> TRACKED_COMMANDS =
+      Set.of("find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+  private static final List<String> SHAPE_FIELDS =
+      List.of("q", "filter", "query", "sort", "pipeline");
+  private static final Set<String> SESSION_FIELDS =
+      Set.of("lsid", "txnNumber", "autocommit", "startTransaction", "readConcern", "writeConcern");
+  private static final BsonString PLACEHOLDER = new BsonString("?");
+  private static final String UNKNOWN_SOURCE = "unknown";
+  private static final int WINDOW_SIZE = 128;
+
+  private final boolean enabled;
+  private final Duration threshold;
+  private final long thresholdNanos;
+  private final int maxShapes;
+  private final boolean explainEnabled;
+  private final ObjectProvider<MongoTemplate> mongoTemplate;
+  private final TaskExecutor taskExecutor;
+  private final Counter slowQueryCounter;
+  private final Map<Integer, ShapeKey> inFlight = new ConcurrentHashMap<>();
+  private final Map<ShapeKey, String> knownShapes = new ConcurrentHashMap<>();
+  private final Map<String, ShapeStats> slowShapes = new ConcurrentHashMap<>();
+  private final Map<String, String> collectionScans = new ConcurrentHashMap<>();
+  private final LongAdder droppedShapes = new LongAdder();
+
+  public SlowQueryMonitor(
+      @Value("${matchmingle.mongo.slow-query.enabled:true}") boolean enabled,
+      @Value("${matchmingle.mongo.slow-query.threshold:PT0.1S}") Duration threshold,
+      @Value("${matchmingle.mongo.slow-query.max-shapes:500}") int maxShapes,
+      @Value("${matchmingle.mongo.explain.enabled:false}") boolean explainEnabled,
+      ObjectProvider<MongoTemplate> mongoTemplate,
+      @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.threshold = threshold;
+    this.thresholdNanos = threshold.toNanos();
+    this.maxShapes = maxShapes;
+    this.explainEnabled = explainEnabled;
+    this.mongoTemplate = mongoTemplate;
+    this.taskExecutor = taskExecutor;
+    this.slowQueryCounter =
+        Counter.builder("matchmingle.mongo.slow.queries")
+            .description("Mongo commands slower than the slow query threshold")
+            .register(meterRegistry);
+  }
+
+  /**
+   * The command document is only valid during this callback, so a key seen for the first time
+   * has its shape built here, before it is known whether the command will be slow.
+   */
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    String commandName = event.getCommandName();
+    if (!TRACKED_COMMANDS.contains(commandName)) {
+      return;
+    }
+    BsonDocument command = event.getCommand();
+    BsonDocument statement = statementOf(commandName, command);
+    BsonValue target = command.get(commandName);
+    String method = RepositoryMetricsPostProcessor.currentRepositoryMethod();
+    ShapeKey key =
+        new ShapeKey(
+            commandName,
+            target != null && target.isString() ? target.asString().getValue() : "",
+            method == null ? UNKNOWN_SOURCE : method,
+            structureOf(statement));
+    inFlight.put(event.getRequestId(), key);
+    if (knownShapes.containsKey(key) || knownShapes.size() >= maxShapes) {
+      return;
+    }
+    String shape = shapeOf(key, statement);
+    if (knownShapes.putIfAbsent(key, shape) == null && explainEnabled) {
+      BsonDocument explainable = explainable(commandName, command);
+      if (explainable != null) {
+        String database = event.getDatabaseName();
+        taskExecutor.execute(() -> explain(database, explainable, shape, key.source()));
+      }
+    }
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    completed(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    completed(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+  }
+
+  /** The {@code limit} shapes with the highest p95, slowest first. */
+  public Map<String, Object> getStats(int limit) {
+    List<Map<String, Object>> shapes =
+        slowShapes.values().stream()
+            .map(ShapeStats::snapshot)
+            .sorted(Comparator.comparingDouble(SlowQueryMonitor::p95Millis).reversed())
+            .limit(limit)
+            .toList();
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("enabled", enabled);
+    result.put("threshold", threshold.toString());
+    result.put("slowQueryCount", (long) slowQueryCounter.count());
+    result.put("droppedShapes", droppedShapes.sum());
+    result.put("shapes", shapes);
+    result.put("explainEnabled", explainEnabled);
+    result.put("collectionScans", new LinkedHashMap<>(collectionScans));
+    return result;
+  }
+
+  private static double p95Millis(Map<String, Object> shape) {
+    return (double) shape.get("p95Ms");
+  }
+
+  private void completed(int requestId, long elapsedNanos) {
+    ShapeKey key = inFlight.remove(requestId);
+    if (key == null || elapsedNanos < thresholdNanos) {
+      return;
+    }
+    slowQueryCounter.increment();
+    String cached = knownShapes.get(key);
+    // Keys beyond max-shapes have no shape built, they are reported by command and collection
+    String shape = cached != null ? cached : key.command() + " " + key.collection() + " {?}";
+    ShapeStats stats = slowShapes.get(shape);
+    if (stats == null) {
+      if (slowShapes.size() >= maxShapes) {
+        droppedShapes.increment();
+        log.debug("Slow query shape not tracked, limit reached: {}", shape);
+        return;
+      }
+      stats = slowShapes.computeIfAbsent(shape, ShapeStats::new);
+    }
+    long count = stats.record(elapsedNanos, key.source());
+    // Only the first occurrence per shape is a warning, repeats would flood the log.
+    if (count == 1) {
+      log.warn(
+          "Slow query took {} ms from {}: {}",
+          TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+          key.source(),
+          shape);
+    } else {
+      log.debug(
+          "Slow query took {} ms from {}: {}",
+          TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+          key.source(),
+          shape);
+    }
+  }
+
+  /** Runs outside the listener, the explain command itself is not tracked. */
+  private void explain(String database, BsonDocument command, String shape, String source) {
+    try {
+      Document plan =
+          mongoTemplate
+              .getObject()
+              .getMongoDatabaseFactory()
+              .getMongoDatabase(database)
+              .runCommand(
+                  new BsonDocument("explain", command)
+                      .append("verbosity", new BsonString("queryPlanner")));
+      if (hasCollectionScan(plan)) {
+        collectionScans.put(shape, source);
+        log.warn("Collection scan planned for query from {}: {}", source, shape);
+      }
+    } catch (MongoException ex) {
+      log.debug("Could not explain {}: {}", shape, ex.getMessage());
+    }
+  }
+
+  /** The first statement of an update or delete, which holds its filter, else the command. */
+  private static BsonDocument statementOf(String commandName, BsonDocument command) {
+    String statements = "update".equals(commandName) ? "updates" : "deletes";
+    if (command.get(statements) instanceof BsonArray array
+        && !array.isEmpty()
+        && array.get(0).isDocument()) {
+      return array.get(0).asDocument();
+    }
+    return command;
+  }
+
+  private static String shapeOf(ShapeKey key, BsonDocument statement) {
+    BsonDocument shape = new BsonDocument();
+    for (String field : SHAPE_FIELDS) {
+      if (statement.containsKey(field)) {
+        shape.append(field, redact(statement.get(field)));
+      }
+    }
+    return key.command() + " " + key.collection() + " " + shape.toJson();
+  }
+
+  /** Hashes what {@link #redact} keeps of the shape fields, without building anything. */
+  private static int structureOf(BsonDocument statement) {
+    int hash = 1;
+    for (String field : SHAPE_FIELDS) {
+      BsonValue value = statement.get(field);
+      if (value != null) {
+        hash = structureOf(value, 31 * hash + field.hashCode());
+      }
+    }
+    return hash;
+  }
+
+  private static int structureOf(BsonValue value, int hash) {
+    if (value.isDocument()) {
+      for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+        hash = structureOf(entry.getValue(), 31 * hash + entry.getKey().hashCode());
+      }
+      return 31 * hash + 1;
+    }
+    if (value.isArray()) {
+      for (BsonValue element : value.asArray()) {
+        if (element.isDocument()) {
+          hash = structureOf(element, hash);
+        }
+      }
+      return 31 * hash + 2;
+    }
+    return hash;
+  }
+
+  /** Keeps field names and operators, replaces every value. A list of values is one value. */
+  private static BsonValue redact(BsonValue value) {
+    if (value.isDocument()) {
+      BsonDocument redacted = new BsonDocument();
+      value.asDocument().forEach((key, nested) -> redacted.append(key, redact(nested)));
+      return redacted;
+    }
+    if (value.isArray()
+        && !value.asArray().isEmpty()
+        && value.asArray().stream().allMatch(BsonValue::isDocument)) {
+      BsonArray redacted = new BsonArray();
+      value.asArray().forEach(element -> redacted.add(redact(element)));
+      return redacted;
+    }
+    return PLACEHOLDER;
+  }
+
+  /**
+   * A copy of the command without the session and routing fields the driver adds, or null when
+   * it cannot be explained, e.g. a write with several statements.
+   */
+  private static BsonDocument explainable(String commandName, BsonDocument command) {
+    for (String statements : List.of("updates", "deletes")) {
+      if (command.get(statements) instanceof BsonArray array && array.size() != 1) {
+        return null;
+      }
+    }
+    if (!command.containsKey(commandName)) {
+      return null;
+    }
+    BsonDocument copy = new BsonDocument();
+    command.forEach(
+        (key, value) -> {
+          if (!key.startsWith("$") && !SESSION_FIELDS.contains(key)) {
+            copy.append(key, value.clone());
+          }
+        });
+    return copy;
+  }
+
+  /** Looks for a COLLSCAN stage in the winning plans, wherever the topology nests them. */
+  private static boolean hasCollectionScan(Object node) {
+    if (node instanceof Map<?, ?> map) {
+      if ("COLLSCAN".equals(map.get("stage"))) {
+        return true;
+      }
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        if (!"rejectedPlans".equals(entry.getKey()) && hasCollectionScan(entry.getValue())) {
+          return true;
+        }
+      }
+    } else if (node instanceof List<?> list) {
+      for (Object element : list) {
+        if (hasCollectionScan(element)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private record ShapeKey(String command, String collection, String source, int structure) {}
+
+  private static class ShapeStats {
+    private final String shape;
+    private final long[] window = new long[WINDOW_SIZE];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private String source;
+
+    private ShapeStats(String shape) {
+      this.shape = shape;
+    }
+
+    private synchronized long record(long nanos, String from) {
+      window[(int) (count % WINDOW_SIZE)] = nanos;
+      count++;
+      totalNanos += nanos;
+      maxNanos = Math.max(maxNanos, nanos);
+      source = from;
+      return count;
+    }
+
+    private synchronized Map<String, Object> snapshot() {
+      long[] recent = Arrays.copyOf(window, (int) Math.min(count, WINDOW_SIZE));
+      Arrays.sort(recent);
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("shape", shape);
+      result.put("source", source);
+      result.put("count", count);
+      result.put("meanMs", millis(totalNanos / Math.max(count, 1)));
+      result.put("p50Ms", millis(percentile(recent, 0.50)));
+      result.put("p95Ms", millis(percentile(recent, 0.95)));
+      result.put("p99Ms", millis(percentile(recent, 0.99)));
+      result.put("maxMs", millis(maxNanos));
+      return result;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      return sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+    }
+
+    private static double millis(long nanos) {
+      return nanos / 1_000_000.0;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.service.UserService.RequestAction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency of every {@link RequestAction} as {@code matchmingle.user.action{action,mode}}, where the
+ * mode is {@code single} or {@code batch}. All timers are registered up front, so recording is a
+ * map lookup by ordinal and a histogram update.
+ */
+@Component
+public class UserActionMetrics {
+
+  private static final Set<RequestAction> BATCH_ACTIONS =
+      EnumSet.of(RequestAction.SEND, RequestAction.ACCEPT, RequestAction.DENY);
+
+  private final Map<RequestAction, Timer> singleTimers = new EnumMap<>(RequestAction.class);
+  private final Map<RequestAction, Timer> batchTimers = new EnumMap<>(RequestAction.class);
+
+  public UserActionMetrics(MeterRegistry meterRegistry) {
+    for (RequestAction action : RequestAction.values()) {
+      singleTimers.put(action, timer(meterRegistry, action, "single"));
+    }
+    for (RequestAction action : BATCH_ACTIONS) {
+      batchTimers.put(action, timer(meterRegistry, action, "batch"));
+    }
+  }
+
+  void record(RequestAction action, boolean batch, long startNanos) {
+    Timer timer = batch ? batchTimers.get(action) : singleTimers.get(action);
+    timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, RequestAction action, String mode) {
+    return Timer.builder("matchmingle.user.action")
+        .description("Latency of connection and permission actions")
+        .tag("action", action.name().toLowerCase(Locale.ROOT))
+        .tag("mode", mode)
+        .register(meterRegistry);
+  }
+}
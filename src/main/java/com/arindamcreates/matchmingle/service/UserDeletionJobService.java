@@ -0,0 +1,350 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.constant.Constants;
+import com.arindamcreates.matchmingle.exception.DataNotFoundException;
+import com.arindamcreates.matchmingle.exception.InvalidStatusException;
+import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.model.DomainEvent;
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.model.UserDeletionJob;
+import com.arindamcreates.matchmingle.model.UserDeletionJob.Phase;
+import com.arindamcreates.matchmingle.model.UserDeletionJob.Status;
+import com.arindamcreates.matchmingle.repository.ConnectionRepository;
+import com.arindamcreates.matchmingle.repository.OutboxRepository;
+import com.arindamcreates.matchmingle.repository.RelationshipStore;
+import com.arindamcreates.matchmingle.repository.UserDeletionJobRepository;
+import com.arindamcreates.matchmingle.repository.UserRepository;
+import com.arindamcreates.matchmingle.repository.VisibilityRequestRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Deletes users in the background. Every step is idempotent and the job document is checkpointed
+ * after each batch. A job only runs after one instance claimed it with an atomic update that
+ * leases it for {@code matchmingle.user-deletion.lease}; checkpoints renew the lease and are
+ * guarded by it, so a job never runs on two instances at once. Every instance periodically
+ * schedules pending jobs and jobs whose lease expired, which resumes jobs interrupted by a crash
+ * or restart from their last checkpoint.
+ */
+@Slf4j
+@Service
+public class UserDeletionJobService {
+
+  private static final EnumSet<Status> ACTIVE_STATUSES = EnumSet.of(Status.PENDING, Status.RUNNING);
+  private static final String STATUS = "status";
+  private static final String OWNER = "owner";
+  private static final String LEASE_UNTIL = "leaseUntil";
+  private static final String UPDATED_AT = "updatedAt";
+
+  private final UserDeletionJobRepository userDeletionJobRepository;
+  private final UserRepository userRepository;
+  private final ConnectionRepository connectionRepository;
+  private final VisibilityRequestRepository visibilityRequestRepository;
+  private final RelationshipStore relationshipStore;
+  private final MongoTemplate mongoTemplate;
+  private final UserPrincipalCache userPrincipalCache;
+  private final PrincipalRevocationRegistry principalRevocationRegistry;
+  private final OutboxRepository outboxRepository;
+  private final TransactionOperations transactionOperations;
+  private final TaskExecutor taskExecutor;
+  private final String instanceId = UUID.randomUUID().toString();
+
+  @Value("${matchmingle.user-deletion.batch-size:500}")
+  private int batchSize;
+
+  @Value("${matchmingle.user-deletion.lease:PT5M}")
+  private Duration lease;
+
+  public UserDeletionJobService(
+      UserDeletionJobRepository userDeletionJobRepository,
+      UserRepository userRepository,
+      ConnectionRepository connectionRepository,
+      VisibilityRequestRepository visibilityRequestRepository,
+      RelationshipStore relationshipStore,
+      MongoTemplate mongoTemplate,
+      UserPrincipalCache userPrincipalCache,
+      PrincipalRevocationRegistry principalRevocationRegistry,
+      OutboxRepository outboxRepository,
+      TransactionOperations transactionOperations,
+      @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+    this.userDeletionJobRepository = userDeletionJobRepository;
+    this.userRepository = userRepository;
+    this.connectionRepository = connectionRepository;
+    this.visibilityRequestRepository = visibilityRequestRepository;
+    this.relationshipStore = relationshipStore;
+    this.mongoTemplate = mongoTemplate;
+    this.userPrincipalCache = userPrincipalCache;
+    this.principalRevocationRegistry = principalRevocationRegistry;
+    this.outboxRepository = outboxRepository;
+    this.transactionOperations = transactionOperations;
+    this.taskExecutor = taskExecutor;
+  }
+
+  /** Starts deleting the user, or returns the job already deleting them. */
+  public UserDeletionJob submit(User user, String requestedBy) {
+    return userDeletionJobRepository
+        .findFirstByUserIdAndStatusIn(user.getId(), ACTIVE_STATUSES)
+        .orElseGet(
+            () -> {
+              UserDeletionJob job =
+                  userDeletionJobRepository.save(
+                      UserDeletionJob.builder()
+                          .userId(user.getId())
+                          .email(user.getEmail())
+                          .requestedBy(requestedBy)
+                          .status(Status.PENDING)
+                          .phase(Phase.REVOKE_ACCESS)
+                          .createdAt(LocalDateTime.now())
+                          .updatedAt(LocalDateTime.now())
+                          .build());
+              schedule(job);
+              return job;
+            });
+  }
+
+  public UserDeletionJob findJob(ObjectId jobId) {
+    return userDeletionJobRepository
+        .findById(jobId)
+        .orElseThrow(() -> new DataNotFoundException(Constants.DELETION_JOB_NOT_FOUND));
+  }
+
+  /** Resumes a failed job from its last checkpoint. */
+  public UserDeletionJob resume(ObjectId jobId) {
+    UserDeletionJob job =
+        mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(jobId).and(STATUS).is(Status.FAILED)),
+            new Update()
+                .set(STATUS, Status.PENDING)
+                .set(UPDATED_AT, LocalDateTime.now())
+                .unset("error")
+                .unset(OWNER)
+                .unset(LEASE_UNTIL),
+            FindAndModifyOptions.options().returnNew(true),
+            UserDeletionJob.class);
+    if (job == null) {
+      findJob(jobId);
+      throw new InvalidStatusException(Constants.DELETION_JOB_NOT_FAILED);
+    }
+    schedule(job);
+    return job;
+  }
+
+  /** Scheduling a job another instance runs is harmless, the claim in {@link #run} fails. */
+  @Scheduled(fixedDelayString = "${matchmingle.user-deletion.resume-interval:PT1M}")
+  public void resumeInterruptedJobs() {
+    List<UserDeletionJob> interrupted = userDeletionJobRepository.findByStatusIn(ACTIVE_STATUSES);
+    LocalDateTime now = LocalDateTime.now();
+    interrupted.stream()
+        .filter(job -> job.getLeaseUntil() == null || job.getLeaseUntil().isBefore(now))
+        .forEach(this::schedule);
+  }
+
+  private void schedule(UserDeletionJob job) {
+    taskExecutor.execute(() -> run(job.getId()));
+  }
+
+  private void run(ObjectId jobId) {
+    UserDeletionJob job = claim(jobId);
+    if (job == null) {
+      return;
+    }
+    try {
+      while (job.getPhase() != Phase.DONE) {
+        job = runPhase(job);
+      }
+      job.setStatus(Status.COMPLETED);
+      checkpoint(job);
+      log.info(
+          "Deleted user {}. Cleaned up {} relationship references.",
+          job.getUserId(),
+          job.getProcessedReferences());
+    } catch (LeaseLostException ex) {
+      log.warn("User deletion job {} lost its lease in phase {}", jobId, job.getPhase());
+    } catch (Exception ex) {
+      log.error("User deletion job {} failed in phase {}", jobId, job.getPhase(), ex);
+      job.setStatus(Status.FAILED);
+      job.setError(ex.getMessage());
+      try {
+        checkpoint(job);
+      } catch (LeaseLostException lost) {
+        log.warn("User deletion job {} lost its lease before recording the failure", jobId);
+      }
+    }
+  }
+
+  /**
+   * Atomically takes a pending job, or a running one whose lease expired, for this instance.
+   * Returns null when the job is finished, failed or leased by another instance.
+   */
+  private UserDeletionJob claim(ObjectId jobId) {
+    LocalDateTime now = LocalDateTime.now();
+    Criteria claimable =
+        new Criteria()
+            .orOperator(
+                Criteria.where(STATUS).is(Status.PENDING),
+                Criteria.where(STATUS).is(Status.RUNNING).and(LEASE_UNTIL).not().gt(now));
+    return mongoTemplate.findAndModify(
+        new Query(Criteria.where("_id").is(jobId).andOperator(claimable)),
+        new Update()
+            .set(STATUS, Status.RUNNING)
+            .set(OWNER, instanceId)
+            .set(LEASE_UNTIL, now.plus(lease))
+            .set(UPDATED_AT, now),
+        FindAndModifyOptions.options().returnNew(true),
+        UserDeletionJob.class);
+  }
+
+  private UserDeletionJob runPhase(UserDeletionJob job) {
+    ObjectId userId = job.getUserId();
+    switch (job.getPhase()) {
+      case REVOKE_ACCESS -> {
+        // Locking first stops the user from creating relationships the job has already passed,
+        // what peers create meanwhile is removed by the sweep before the user is deleted.
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(userId)),
+            new Update().set("userLocked", true),
+            User.class);
+        userPrincipalCache.invalidate(job.getEmail());
+        principalRevocationRegistry.onUserDeleted(userId, job.getEmail());
+        job.setPhase(Phase.DELETE_CONNECTIONS);
+      }
+      case DELETE_CONNECTIONS -> {
+        if (!deleteNextConnections(job)) {
+          job.setPhase(Phase.DELETE_VISIBILITY_REQUESTS);
+        }
+      }
+      case DELETE_VISIBILITY_REQUESTS -> {
+        visibilityRequestRepository.deleteAllByUser(userId);
+        job.setPhase(Phase.DETACH_RELATIONSHIPS);
+        job.setRelationshipType(RelationshipType.values()[0]);
+        job.setCursor(null);
+      }
+      case DETACH_RELATIONSHIPS -> detachNextBatch(job);
+      case DELETE_USER -> {
+        sweep(job);
+        userRepository.deleteById(userId);
+        job.setPhase(Phase.DONE);
+      }
+      case DONE -> {}
+    }
+    return checkpoint(job);
+  }
+
+  /**
+   * Peers can still act on the user while the earlier phases run, e.g. accept a pending request
+   * after the connections were deleted or send one after requests were detached. One more pass
+   * over everything right before the user document goes removes what they created meanwhile;
+   * usually it finds nothing. It is idempotent, so an interrupted sweep simply runs again.
+   */
+  private void sweep(UserDeletionJob job) {
+    while (deleteNextConnections(job)) {
+      checkpoint(job);
+    }
+    ObjectId userId = job.getUserId();
+    visibilityRequestRepository.deleteAllByUser(userId);
+    for (RelationshipType type : RelationshipType.values()) {
+      List<ObjectId> detached = relationshipStore.detachBatch(userId, type, null, batchSize);
+      while (!detached.isEmpty()) {
+        job.setProcessedReferences(job.getProcessedReferences() + detached.size());
+        checkpoint(job);
+        detached = relationshipStore.detachBatch(userId, type, detached.getLast(), batchSize);
+      }
+    }
+  }
+
+  /**
+   * Deletes a batch of the user's connections in one transaction with their CONNECTION_REMOVED
+   * events, so the connection graph of every instance and the peers' event streams follow.
+   * Returns false once none are left.
+   */
+  private boolean deleteNextConnections(UserDeletionJob job) {
+    ObjectId userId = job.getUserId();
+    Query query =
+        new Query(
+                new Criteria()
+                    .orOperator(
+                        Criteria.where("user1").is(userId), Criteria.where("user2").is(userId)))
+            .limit(batchSize);
+    query.fields().include("user1", "user2");
+    List<Connection> batch = mongoTemplate.find(query, Connection.class);
+    if (batch.isEmpty()) {
+      return false;
+    }
+    transactionOperations.executeWithoutResult(
+        status -> {
+          connectionRepository.deleteAllById(batch.stream().map(Connection::getId).toList());
+          outboxRepository.append(
+              batch.stream()
+                  .map(
+                      connection ->
+                          DomainEvent.of(
+                              DomainEvent.Type.CONNECTION_REMOVED,
+                              userId,
+                              userId.equals(connection.getUser1())
+                                  ? connection.getUser2()
+                                  : connection.getUser1()))
+                  .toList());
+        });
+    log.debug("Deletion job {} removed {} connections", job.getId(), batch.size());
+    return true;
+  }
+
+  private void detachNextBatch(UserDeletionJob job) {
+    RelationshipType type = job.getRelationshipType();
+    List<ObjectId> detached =
+        relationshipStore.detachBatch(job.getUserId(), type, job.getCursor(), batchSize);
+    if (!detached.isEmpty()) {
+      job.setCursor(detached.getLast());
+      job.setProcessedReferences(job.getProcessedReferences() + detached.size());
+      log.debug(
+          "Deletion job {} detached {} {} references, {} in total",
+          job.getId(),
+          detached.size(),
+          type,
+          job.getProcessedReferences());
+      return;
+    }
+    if (type.ordinal() + 1 < RelationshipType.values().length) {
+      job.setRelationshipType(RelationshipType.values()[type.ordinal() + 1]);
+    } else {
+      job.setRelationshipType(null);
+      job.setPhase(Phase.DELETE_USER);
+    }
+    job.setCursor(null);
+  }
+
+  /** Saves the job and renews the lease, as long as this instance still holds it. */
+  private UserDeletionJob checkpoint(UserDeletionJob job) {
+    LocalDateTime now = LocalDateTime.now();
+    job.setUpdatedAt(now);
+    job.setLeaseUntil(now.plus(lease));
+    Query held = new Query(Criteria.where("_id").is(job.getId()).and(OWNER).is(instanceId));
+    if (mongoTemplate.findAndReplace(held, job) == null) {
+      throw new LeaseLostException();
+    }
+    return job;
+  }
+
+  private static class LeaseLostException extends RuntimeException {
+    private LeaseLostException() {
+      super(null, null, false, false);
+    }
+  }
+}
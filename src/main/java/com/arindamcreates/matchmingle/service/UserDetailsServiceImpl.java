@@ -1,6 +1,6 @@
 package com.arindamcreates.matchmingle.service;
 
-import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -9,20 +9,26 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
-  @Autowired private UserService userService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private UserPrincipalCache userPrincipalCache;
 
   @Override
   public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-    User user = userService.findUserByEmail(email);
+    return userPrincipalCache.get(email, this::loadFromDatabase);
+  }
 
-    if (user != null) {
-      return org.springframework.security.core.userdetails.User.builder()
-          .username(user.getEmail())
-          .password("{noop}UNUSED_PASSWORD")
-          .roles(user.getRole())
-          .accountLocked(user.getUserLocked())
-          .build();
-    }
-    throw new UsernameNotFoundException("User not found with username: " + email);
+  private UserDetails loadFromDatabase(String email) {
+    return userRepository
+        .findPrincipalByEmail(email)
+        .map(
+            user ->
+                org.springframework.security.core.userdetails.User.builder()
+                    .username(user.getEmail())
+                    .password("{noop}UNUSED_PASSWORD")
+                    .roles(user.getRole())
+                    .accountLocked(user.getUserLocked())
+                    .build())
+        .orElseThrow(
+            () -> new UsernameNotFoundException("User not found with username: " + email));
   }
 }
@@ -0,0 +1,235 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.dto.UserEvent;
+import com.arindamcreates.matchmingle.exception.DataAlreadyExistException;
+import com.arindamcreates.matchmingle.model.DomainEvent;
+import com.arindamcreates.matchmingle.repository.OutboxRepository;
+import com.arindamcreates.matchmingle.utils.AuthUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes relayed {@link DomainEvent}s to the open SSE streams of the user they are about, so
+ * clients no longer poll for requests and grants. Subscribers are kept in a {@link
+ * ConcurrentHashMap} by user: publishing only reads it, and subscribing or leaving locks a single
+ * bin. Each stream has a bounded buffer drained by its own virtual thread, which stays parked
+ * while the stream is idle, so a publisher never blocks on a slow network. A stream whose buffer
+ * is full is closed. Clients reconnect with {@code Last-Event-ID} and first receive what they
+ * missed from the outbox.
+ */
+@Slf4j
+@Service
+public class UserEventPushService {
+
+  private static final Object HEARTBEAT = new Object();
+  private static final Map<DomainEvent.Type, UserEvent.Type> PUSHED_TYPES =
+      new EnumMap<>(
+          Map.of(
+              DomainEvent.Type.CONNECTION_REQUESTED, UserEvent.Type.CONNECTION_REQUEST_RECEIVED,
+              DomainEvent.Type.CONNECTION_ACCEPTED, UserEvent.Type.CONNECTION_REQUEST_ACCEPTED,
+              DomainEvent.Type.CONNECTION_REMOVED, UserEvent.Type.CONNECTION_REMOVED,
+              DomainEvent.Type.EMAIL_REQUESTED, UserEvent.Type.EMAIL_REQUESTED,
+              DomainEvent.Type.PHONE_REQUESTED, UserEvent.Type.PHONE_REQUESTED,
+              DomainEvent.Type.EMAIL_SHARED, UserEvent.Type.EMAIL_SHARED,
+              DomainEvent.Type.PHONE_SHARED, UserEvent.Type.PHONE_SHARED));
+
+  private final AuthUtil authUtil;
+  private final UserService userService;
+  private final OutboxRepository outboxRepository;
+  private final int bufferSize;
+  private final int maxReplay;
+  private final int maxStreamsPerUser;
+  private final Duration streamTimeout;
+  private final Map<ObjectId, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final AtomicInteger subscriberCount = new AtomicInteger();
+  private final Counter slowConsumerCounter;
+
+  public UserEventPushService(
+      AuthUtil authUtil,
+      UserService userService,
+      OutboxRepository outboxRepository,
+      MeterRegistry meterRegistry,
+      @Value("${matchmingle.events.buffer-size:64}") int bufferSize,
+      @Value("${matchmingle.events.max-replay:500}") int maxReplay,
+      @Value("${matchmingle.events.max-streams-per-user:5}") int maxStreamsPerUser,
+      @Value("${matchmingle.events.stream-timeout:PT30M}") Duration streamTimeout) {
+    this.authUtil = authUtil;
+    this.userService = userService;
+    this.outboxRepository = outboxRepository;
+    this.bufferSize = bufferSize;
+    this.maxReplay = maxReplay;
+    this.maxStreamsPerUser = maxStreamsPerUser;
+    this.streamTimeout = streamTimeout;
+    Gauge.builder("matchmingle.events.subscribers", subscriberCount, AtomicInteger::get)
+        .description("Open user event streams")
+        .register(meterRegistry);
+    this.slowConsumerCounter =
+        Counter.builder("matchmingle.events.slow.consumer.disconnects")
+            .description("Event streams closed because their buffer was full")
+            .register(meterRegistry);
+  }
+
+  /** Opens a stream, replaying the caller's events after {@code lastEventId} when given. */
+  public SseEmitter subscribe(Long lastEventId) {
+    ObjectId userId =
+        userService.findUserIdentityByEmail(authUtil.getCurrentUserEmail()).getId();
+    Subscriber subscriber =
+        new Subscriber(userId, new SseEmitter(streamTimeout.toMillis()), lastEventId);
+    AtomicBoolean added = new AtomicBoolean();
+    subscribers.compute(
+        userId,
+        (key, streams) -> {
+          Set<Subscriber> current = streams == null ? ConcurrentHashMap.newKeySet() : streams;
+          if (current.size() < maxStreamsPerUser) {
+            added.set(current.add(subscriber));
+          }
+          return current.isEmpty() ? null : current;
+        });
+    if (!added.get()) {
+      throw new DataAlreadyExistException("Too many open event streams");
+    }
+    subscriberCount.incrementAndGet();
+    subscriber.start();
+    return subscriber.emitter;
+  }
+
+  @EventListener
+  public void publish(DomainEvent event) {
+    Set<Subscriber> streams = subscribers.get(event.getSubject());
+    if (streams != null && PUSHED_TYPES.containsKey(event.getType())) {
+      UserEvent userEvent = toUserEvent(event);
+      streams.forEach(subscriber -> subscriber.offer(userEvent));
+    }
+  }
+
+  /** Keeps idle streams open through proxies and detects clients that went away. */
+  @Scheduled(fixedDelayString = "${matchmingle.events.heartbeat-interval:PT30S}")
+  public void sendHeartbeats() {
+    subscribers.values().forEach(streams -> streams.forEach(s -> s.offer(HEARTBEAT)));
+  }
+
+  private static UserEvent toUserEvent(DomainEvent event) {
+    return UserEvent.builder()
+        .sequence(event.getSequence())
+        .type(PUSHED_TYPES.get(event.getType()))
+        .from(event.getActor().toHexString())
+        .occurredAt(event.getOccurredAt())
+        .build();
+  }
+
+  private void remove(Subscriber subscriber) {
+    subscribers.computeIfPresent(
+        subscriber.userId,
+        (key, streams) -> {
+          if (streams.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+          }
+          return streams.isEmpty() ? null : streams;
+        });
+  }
+
+  private final class Subscriber {
+
+    private final ObjectId userId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Long lastEventId;
+    private Thread drainer;
+
+    private Subscriber(ObjectId userId, SseEmitter emitter, Long lastEventId) {
+      this.userId = userId;
+      this.emitter = emitter;
+      this.lastEventId = lastEventId;
+    }
+
+    private void start() {
+      emitter.onCompletion(this::close);
+      emitter.onTimeout(this::close);
+      emitter.onError(error -> close());
+      // Always virtual, a platform thread per idle stream would not scale to many clients.
+      drainer = Thread.ofVirtual().name("user-events-" + userId).start(this::drain);
+    }
+
+    private void offer(Object message) {
+      if (!buffer.offer(message)) {
+        slowConsumerCounter.increment();
+        log.warn("Closing event stream of {} whose buffer of {} is full", userId, bufferSize);
+        close();
+        emitter.complete();
+      }
+    }
+
+    /**
+     * Sends the replay first. Live events arriving meanwhile wait in the buffer, and those the
+     * replay already covered are skipped by sequence.
+     */
+    private void drain() {
+      try {
+        long lastSent = 0;
+        if (lastEventId != null) {
+          for (DomainEvent missed :
+              outboxRepository.findBySubjectAfter(
+                  userId, PUSHED_TYPES.keySet(), lastEventId, maxReplay)) {
+            lastSent = send(toUserEvent(missed));
+          }
+        }
+        while (!closed.get()) {
+          Object message = buffer.take();
+          if (message == HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+          } else if (((UserEvent) message).getSequence() > lastSent) {
+            lastSent = send((UserEvent) message);
+          }
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } catch (IOException | IllegalStateException ex) {
+        // The client went away or the stream was completed.
+        close();
+      } catch (DataAccessException ex) {
+        log.warn("Replaying events to {} failed: {}", userId, ex.getMessage());
+        close();
+        emitter.complete();
+      }
+    }
+
+    private long send(UserEvent event) throws IOException {
+      emitter.send(
+          SseEmitter.event()
+              .id(String.valueOf(event.getSequence()))
+              .name(event.getType().name())
+              .data(event, MediaType.APPLICATION_JSON));
+      return event.getSequence();
+    }
+
+    private void close() {
+      if (closed.compareAndSet(false, true)) {
+        remove(this);
+        if (drainer != null) {
+          drainer.interrupt();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.dto.ConnectionNode;
+import com.arindamcreates.matchmingle.dto.ConnectionPage;
+import com.arindamcreates.matchmingle.exception.DataNotFoundException;
+import com.arindamcreates.matchmingle.exception.InvalidStatusException;
+import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.model.VisibilityRequest;
+import com.arindamcreates.matchmingle.repository.ConnectionRepository;
+import com.arindamcreates.matchmingle.repository.RelationshipStore;
+import com.arindamcreates.matchmingle.repository.UserProfileRepository;
+import com.arindamcreates.matchmingle.repository.VisibilityRequestRepository;
+import com.arindamcreates.matchmingle.utils.AuthUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads behind the GraphQL API. The batch methods take every node of one level of the response
+ * at once and answer with a single query, so a page of connections with peers and pending
+ * visibility requests costs a fixed number of round trips whatever its size.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserGraphService {
+
+  private final AuthUtil authUtil;
+  private final UserService userService;
+  private final RelationshipStore relationshipStore;
+  private final ConnectionRepository connectionRepository;
+  private final UserProfileRepository userProfileRepository;
+  private final VisibilityRequestRepository visibilityRequestRepository;
+
+  @Value("${matchmingle.graphql.max-page-size:100}")
+  private int maxPageSize;
+
+  public User me() {
+    return userProfileRepository
+        .findPublicProfileByEmail(authUtil.getCurrentUserEmail())
+        .orElseThrow(() -> new DataNotFoundException("No user exists for requested input"));
+  }
+
+  /** One page of peer ids and one {@code $in} query on the unique pair keys. */
+  public ConnectionPage myConnections(int first, String after) {
+    if (after != null && !ObjectId.isValid(after)) {
+      throw new InvalidStatusException("Invalid cursor format");
+    }
+    int limit = Math.clamp(first, 1, maxPageSize);
+    ObjectId owner = currentUserId();
+    List<ObjectId> peers =
+        relationshipStore.findPeers(
+            owner, RelationshipType.CONNECTION, after == null ? null : new ObjectId(after), limit);
+    List<String> pairKeys = peers.stream().map(peer -> Connection.pairKeyOf(owner, peer)).toList();
+    Map<String, Connection> connections =
+        connectionRepository.findByPairKeyIn(pairKeys).stream()
+            .collect(Collectors.toMap(Connection::getPairKey, Function.identity()));
+    List<ConnectionNode> items = new ArrayList<>(peers.size());
+    for (ObjectId peer : peers) {
+      Connection connection = connections.get(Connection.pairKeyOf(owner, peer));
+      if (connection != null) {
+        items.add(toNode(owner, peer, connection));
+      }
+    }
+    return ConnectionPage.builder()
+        .items(items)
+        .nextCursor(peers.size() < limit ? null : peers.getLast().toHexString())
+        .build();
+  }
+
+  public List<VisibilityRequest> myVisibilityRequests() {
+    return visibilityRequestRepository.findByReceiverAndStatus(
+        currentUserId(), VisibilityRequest.RequestStatus.PENDING);
+  }
+
+  /** Public profiles by id, for the users DataLoader. Unknown ids are left out. */
+  public Map<ObjectId, User> findProfiles(Set<ObjectId> ids) {
+    return userProfileRepository.findPublicProfiles(ids).stream()
+        .collect(Collectors.toMap(User::getId, Function.identity()));
+  }
+
+  /**
+   * Pending visibility requests between each node's owner and peer, in either direction. The
+   * nodes of one response share their owner, so this is one query.
+   */
+  public Map<ConnectionNode, List<VisibilityRequest>> findPendingVisibilityRequests(
+      Collection<ConnectionNode> nodes) {
+    Map<ConnectionNode, List<VisibilityRequest>> result = new HashMap<>();
+    Map<ObjectId, List<ConnectionNode>> byOwner =
+        nodes.stream().collect(Collectors.groupingBy(ConnectionNode::getOwnerId));
+    byOwner.forEach(
+        (owner, ownerNodes) -> {
+          List<ObjectId> peers = ownerNodes.stream().map(ConnectionNode::getPeerId).toList();
+          Map<ObjectId, List<VisibilityRequest>> byPeer =
+              visibilityRequestRepository.findPendingBetween(owner, peers).stream()
+                  .collect(
+                      Collectors.groupingBy(
+                          request ->
+                              owner.equals(request.getSender())
+                                  ? request.getReceiver()
+                                  : request.getSender()));
+          ownerNodes.forEach(
+              node -> result.put(node, byPeer.getOrDefault(node.getPeerId(), List.of())));
+        });
+    return result;
+  }
+
+  private ObjectId currentUserId() {
+    return userService.findUserIdentityByEmail(authUtil.getCurrentUserEmail()).getId();
+  }
+
+  private static ConnectionNode toNode(ObjectId owner, ObjectId peer, Connection connection) {
+    return ConnectionNode.builder()
+        .id(connection.getId().toHexString())
+        .ownerId(owner)
+        .peerId(peer)
+        .connectionTime(connection.getConnectionTime())
+        .emailShow(Boolean.TRUE.equals(connection.getEmailShow()))
+        .numberShow(Boolean.TRUE.equals(connection.getNumberShow()))
+        .build();
+  }
+}
@@ -0,0 +1,172 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.arindamcreates.matchmingle.model.RelationshipType;
+import com.arindamcreates.matchmingle.model.User;
+import com.arindamcreates.matchmingle.repository.ConnectionRepository;
+import com.arindamcreates.matchmingle.repository.RelationshipStore;
+import com.arindamcreates.matchmingle.repository.VisibilityRequestRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Removes users duplicated by concurrent first logins, before {@link
+ * com.arindamcreates.matchmingle.config.MongoIndexInitializer} builds the unique email and phone
+ * indexes. Duplicate emails are streamed from one grouping aggregation and resolved in batches: the
+ * user with details, then relationships, then the oldest is kept, and the others are deleted and
+ * revoked when nothing refers to them, neither relationships nor connection or visibility request
+ * documents. Duplicates that are referenced, and distinct accounts sharing a phone, are only
+ * reported and have to be merged by hand. Runs only with {@code
+ * matchmingle.users.identity-dedup.enabled=true} and only reports what it would remove until
+ * {@code matchmingle.users.identity-dedup.dry-run=false}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "matchmingle.users.identity-dedup.enabled", havingValue = "true")
+public class UserIdentityDedupMigration implements ApplicationRunner {
+
+  private static final String EMAIL = "email";
+  private static final String PHONE = "phone";
+  private static final int BSON_STRING = 2;
+
+  private final MongoTemplate mongoTemplate;
+  private final RelationshipStore relationshipStore;
+  private final ConnectionRepository connectionRepository;
+  private final VisibilityRequestRepository visibilityRequestRepository;
+  private final PrincipalRevocationRegistry principalRevocationRegistry;
+
+  @Value("${matchmingle.users.identity-dedup.batch-size:500}")
+  private int batchSize;
+
+  @Value("${matchmingle.users.identity-dedup.dry-run:true}")
+  private boolean dryRun;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    dedupEmails();
+    long sharedPhones;
+    try (Stream<Document> groups = duplicateGroups(PHONE)) {
+      sharedPhones = groups.count();
+    }
+    if (sharedPhones > 0) {
+      log.warn("{} phone numbers are shared by several users, merge them by hand", sharedPhones);
+    }
+  }
+
+  public long dedupEmails() {
+    long removed = 0;
+    long unresolved = 0;
+    List<List<ObjectId>> batch = new ArrayList<>(batchSize);
+    try (Stream<Document> groups = duplicateGroups(EMAIL)) {
+      for (Document group : (Iterable<Document>) groups::iterator) {
+        batch.add(group.getList("ids", ObjectId.class));
+        if (batch.size() >= batchSize) {
+          BatchResult result = resolveBatch(batch);
+          removed += result.removed();
+          unresolved += result.unresolved();
+          batch.clear();
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      BatchResult result = resolveBatch(batch);
+      removed += result.removed();
+      unresolved += result.unresolved();
+    }
+    if (removed > 0 || unresolved > 0) {
+      log.info(
+          "{} {} duplicate users, {} duplicates are referenced and were kept",
+          dryRun ? "Would remove" : "Removed",
+          removed,
+          unresolved);
+    }
+    return removed;
+  }
+
+  /** Values of the field held by more than one user, with the ids of those users. */
+  private Stream<Document> duplicateGroups(String field) {
+    Aggregation aggregation =
+        Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(field).type(BSON_STRING)),
+                Aggregation.group(field).push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)))
+            .withOptions(
+                AggregationOptions.builder().allowDiskUse(true).cursorBatchSize(batchSize).build());
+    return mongoTemplate.aggregateStream(aggregation, User.class, Document.class);
+  }
+
+  /** Loads every user of the batch in one query and removes the duplicates that can go. */
+  private BatchResult resolveBatch(List<List<ObjectId>> groups) {
+    List<ObjectId> ids = groups.stream().flatMap(List::stream).toList();
+    Query query = new Query(Criteria.where("_id").in(ids));
+    query.fields().include(EMAIL, "userDetailsProvided");
+    Map<ObjectId, User> users =
+        mongoTemplate.find(query, User.class).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+    Map<ObjectId, Boolean> referenced =
+        ids.stream().collect(Collectors.toMap(Function.identity(), this::isReferenced));
+    Comparator<ObjectId> keepFirst =
+        Comparator.comparing(
+                (ObjectId id) -> !Boolean.TRUE.equals(users.get(id).getUserDetailsProvided()))
+            .thenComparing(id -> !referenced.get(id))
+            .thenComparing(Comparator.naturalOrder());
+
+    List<ObjectId> removable = new ArrayList<>();
+    int unresolved = 0;
+    for (List<ObjectId> group : groups) {
+      List<ObjectId> duplicates =
+          group.stream().filter(users::containsKey).sorted(keepFirst).skip(1).toList();
+      for (ObjectId duplicate : duplicates) {
+        if (referenced.get(duplicate)) {
+          log.warn(
+              "Duplicate user {} of {} is referenced, merge it by hand",
+              duplicate,
+              users.get(duplicate).getEmail());
+          unresolved++;
+        } else {
+          removable.add(duplicate);
+        }
+      }
+    }
+    if (!removable.isEmpty() && !dryRun) {
+      mongoTemplate.remove(new Query(Criteria.where("_id").in(removable)), User.class);
+      removable.forEach(
+          id -> principalRevocationRegistry.onUserDeleted(id, users.get(id).getEmail()));
+    }
+    return new BatchResult(removable.size(), unresolved);
+  }
+
+  private boolean isReferenced(ObjectId userId) {
+    for (RelationshipType type : RelationshipType.values()) {
+      if (relationshipStore.count(userId, type) > 0) {
+        return true;
+      }
+    }
+    return connectionRepository.existsByUser(userId)
+        || visibilityRequestRepository.existsByUser(userId);
+  }
+
+  private record BatchResult(int removed, int unresolved) {}
+}
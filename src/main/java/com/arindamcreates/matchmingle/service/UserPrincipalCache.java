@@ -0,0 +1,65 @@
+package com.arindamcreates.matchmingle.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-process cache of authenticated principals keyed by email, so that {@code JwtFilter}
+ * does not need a Mongo round trip on every request. Entries are evicted by size and TTL and must
+ * be invalidated whenever the role or lock status of a user changes.
+ */
+@Slf4j
+@Component
+public class UserPrincipalCache {
+
+  private static final String CACHE_NAME = "userPrincipals";
+
+  private final Cache<String, UserDetails> cache;
+
+  public UserPrincipalCache(
+      @Value("${matchmingle.principal-cache.max-size:10000}") long maxSize,
+      @Value("${matchmingle.principal-cache.ttl:PT5M}") Duration ttl,
+      MeterRegistry meterRegistry) {
+    this.cache =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    log.info("Principal cache initialised with maxSize={} and ttl={}", maxSize, ttl);
+  }
+
+  public UserDetails get(String email, Function<String, UserDetails> loader) {
+    return cache.get(email, loader);
+  }
+
+  public void invalidate(String email) {
+    if (email != null) {
+      cache.invalidate(email);
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public Map<String, Object> getStats() {
+    CacheStats stats = cache.stats();
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("size", cache.estimatedSize());
+    result.put("hitCount", stats.hitCount());
+    result.put("missCount", stats.missCount());
+    result.put("hitRate", stats.hitRate());
+    result.put("evictionCount", stats.evictionCount());
+    result.put("loadFailureCount", stats.loadFailureCount());
+    return result;
+  }
+}
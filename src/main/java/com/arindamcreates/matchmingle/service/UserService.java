@@ -4,22 +4,47 @@ import com.arindamcreates.matchmingle.constant.Constants;
 import com.arindamcreates.matchmingle.dto.*;
 import com.arindamcreates.matchmingle.exception.DataAlreadyExistException;
 import com.arindamcreates.matchmingle.exception.DataNotFoundException;
+import com.arindamcreates.matchmingle.exception.DomainException;
+import com.arindamcreates.matchmingle.exception.ErrorCode;
+import com.arindamcreates.matchmingle.exception.Rejections;
 import com.arindamcreates.matchmingle.model.Connection;
+import com.arindamcreates.matchmingle.model.DomainEvent;
+import com.arindamcreates.matchmingle.model.RelationshipType;
 import com.arindamcreates.matchmingle.model.User;
 import com.arindamcreates.matchmingle.model.VisibilityRequest;
 import com.arindamcreates.matchmingle.repository.ConnectionRepository;
+import com.arindamcreates.matchmingle.repository.OutboxRepository;
+import com.arindamcreates.matchmingle.repository.RelationshipStore;
+import com.arindamcreates.matchmingle.repository.UserProfileRepository;
 import com.arindamcreates.matchmingle.repository.UserRepository;
 import com.arindamcreates.matchmingle.repository.VisibilityRequestRepository;
 import com.arindamcreates.matchmingle.utils.AuthUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Service
 @Slf4j
@@ -27,24 +52,50 @@ import org.springframework.stereotype.Service;
 public class UserService {
 
   private static final int BATCH_SIZE = 100;
+  private static final int PROFILE_UPDATE_ATTEMPTS = 3;
   private final AuthUtil authUtil;
   private final ConnectionRepository connectionRepository;
   private final UserRepository userRepository;
+  private final RelationshipStore relationshipStore;
+  private final UserProfileRepository userProfileRepository;
   private final VisibilityRequestRepository visibilityRequestRepository;
-
-  public User addUserDetails(UserRequest userRequest) {
+  private final MongoTemplate mongoTemplate;
+  private final ObjectMapper objectMapper;
+  private final OutboxRepository outboxRepository;
+  private final TransactionOperations transactionOperations;
+  private final ProfileWriteBehind profileWriteBehind;
+  private final UserActionMetrics userActionMetrics;
+
+  /**
+   * Sets only the profile fields the request changes, guarded by the profile version they were
+   * computed from. A concurrent update of the same profile makes the edit start over.
+   */
+  public UserResponse addUserDetails(UserRequest userRequest) {
     String loggedInUserEmail = authUtil.getCurrentUserEmail();
-    Optional<List<User>> existingUserOptional =
-        userRepository.findByEmailOrPhone(loggedInUserEmail, userRequest.getPhone());
-    if (existingUserOptional.isEmpty()) {
-      throw new DataNotFoundException("User doesn't exist");
-    }
-    if (!existingUserOptional.get().isEmpty() && existingUserOptional.get().size() > 1) {
-      throw new DataAlreadyExistException("Different two users exist with same email or phone");
+    for (int attempt = 0; attempt < PROFILE_UPDATE_ATTEMPTS; attempt++) {
+      List<User> existingUsers =
+          userRepository.findProfilesByEmailOrPhone(loggedInUserEmail, userRequest.getPhone());
+      if (existingUsers.size() > 1) {
+        throw new DataAlreadyExistException("Different two users exist with same email or phone");
+      }
+      if (existingUsers.isEmpty()
+          || !loggedInUserEmail.equals(existingUsers.getFirst().getEmail())) {
+        throw new DataNotFoundException("User doesn't exist");
+      }
+      Optional<User> updatedUser;
+      try {
+        updatedUser = profileWriteBehind.update(existingUsers.getFirst(), userRequest);
+      } catch (DuplicateKeyException ex) {
+        // Another user claimed the phone after the check above, caught by phone_unique_idx.
+        // Write-behind never queues a phone change, so the violation always surfaces here.
+        throw new DataAlreadyExistException("Different two users exist with same email or phone");
+      }
+      if (updatedUser.isPresent()) {
+        log.info("User details for {} added successfully", updatedUser.get().getId());
+        return toUserResponse(updatedUser.get());
+      }
     }
-    User savedUser = updateAndSaveUser(existingUserOptional.get().getFirst(), userRequest);
-    log.info("User details for {} added successfully", savedUser.getId());
-    return savedUser;
+    throw Rejections.PROFILE_UPDATE_CONFLICT;
   }
 
   public User findUserByEmail(String email) {
@@ -71,32 +122,67 @@ public class UserService {
     try {
       return userRepository
           .findById(id)
-          .orElseThrow(() -> new DataNotFoundException(Constants.USER_NOT_FOUND));
+          .orElseThrow(() -> Rejections.USER_NOT_FOUND);
+    } catch (DomainException ex) {
+      throw ex;
     } catch (Exception ex) {
       log.error(Constants.USER_NOT_FOUND);
       throw new DataAccessResourceFailureException("Constants.USER_NOT_FOUND", ex);
     }
   }
 
+  /** Loads only the id and email of a user, for checks that don't need the full document. */
+  public User findUserIdentityById(ObjectId id) {
+    return userRepository
+        .findIdentityById(id)
+        .orElseThrow(() -> Rejections.USER_NOT_FOUND);
+  }
+
+  public User findUserIdentityByEmail(String email) {
+    return userRepository
+        .findIdentityByEmail(email)
+        .orElseThrow(() -> new DataNotFoundException("No user exists for requested input"));
+  }
+
   public UserResponse findUserById(@Valid IdRequest id) {
-    User targetedUser = checkUserDoesExist(new ObjectId(id.getId()));
-    User loggedInUser = findUserByEmail(authUtil.getCurrentUserEmail());
-    UserResponse userResponse =
-        UserResponse.builder()
-            .firstName(targetedUser.getFirstName())
-            .lastName(targetedUser.getLastName())
-            .location(targetedUser.getLocation())
-            .gender(targetedUser.getGender())
-            .tagLine(targetedUser.getTagLine())
-            .summary(targetedUser.getSummary())
-            .imageUrl(targetedUser.getImageUrl())
-            .build();
-    Connection connection =
-        findConnectionByUser1AndUser2(loggedInUser.getId(), targetedUser.getId());
-    if (Boolean.TRUE.equals(connection.getEmailShow())) {
-      userResponse = userResponse.toBuilder().email(targetedUser.getEmail()).build();
+    UserProfileProjection profile =
+        userProfileRepository
+            .findProfileForViewer(new ObjectId(id.getId()), authUtil.getCurrentUserEmail())
+            .orElseThrow(() -> Rejections.USER_NOT_FOUND);
+    if (!profile.isConnected()) {
+      throw Rejections.CONNECTION_NOT_FOUND;
     }
-    return userResponse;
+    return profile.toUserResponse();
+  }
+
+  /**
+   * Lists one keyset page of the logged-in user's connections or requests with their peers'
+   * profiles. Profiles are written to the response as the aggregation cursor yields them, so
+   * memory stays flat regardless of the page size. {@code nextCursor} is null on the last page.
+   */
+  public StreamingResponseBody streamRelationships(
+      RelationshipType type, String after, int limit) {
+    ObjectId userId = findUserIdentityByEmail(authUtil.getCurrentUserEmail()).getId();
+    ObjectId cursor = after == null ? null : new ObjectId(after);
+    return outputStream -> {
+      try (Stream<PeerProfile> peers =
+              relationshipStore.streamPeerProfiles(userId, type, cursor, limit);
+          JsonGenerator json = objectMapper.getFactory().createGenerator(outputStream)) {
+        json.writeStartObject();
+        json.writeStringField("type", type.name());
+        json.writeArrayFieldStart("items");
+        String last = null;
+        int count = 0;
+        for (PeerProfile peer : (Iterable<PeerProfile>) peers::iterator) {
+          json.writeObject(peer);
+          last = peer.getId();
+          count++;
+        }
+        json.writeEndArray();
+        json.writeStringField("nextCursor", count < limit ? null : last);
+        json.writeEndObject();
+      }
+    };
   }
 
   public void sendRequest(String id) {
@@ -115,6 +201,18 @@ public class UserService {
     handleRequestForConnection(id, RequestAction.REMOVE);
   }
 
+  public List<BatchItemResult> sendRequests(List<String> ids) {
+    return handleBatchRequestForConnection(ids, RequestAction.SEND);
+  }
+
+  public List<BatchItemResult> acceptRequests(List<String> ids) {
+    return handleBatchRequestForConnection(ids, RequestAction.ACCEPT);
+  }
+
+  public List<BatchItemResult> denyRequests(List<String> ids) {
+    return handleBatchRequestForConnection(ids, RequestAction.DENY);
+  }
+
   public void showEmail(String id) {
     handleRequestForPermission(id, RequestAction.SHOW_EMAIL);
   }
@@ -132,120 +230,251 @@ public class UserService {
   }
 
   private void handleRequestForConnection(String id, RequestAction action) {
+    long start = System.nanoTime();
     try {
       String loggedInUserEmail = authUtil.getCurrentUserEmail();
-      User targetedUser = checkUserDoesExist(new ObjectId(id));
+      User targetedUser = findUserIdentityById(new ObjectId(id));
       if (loggedInUserEmail.equals(targetedUser.getEmail())) {
-        throw new DataNotFoundException(getSelfActionErrorMessage(action));
-      }
-      User loggedInUser = findUserByEmail(loggedInUserEmail);
-
-      switch (action) {
-        case SEND -> processSendRequest(loggedInUser, targetedUser);
-        case ACCEPT -> processAcceptRequest(targetedUser, loggedInUser);
-        case DENY -> processDenyRequest(targetedUser, loggedInUser);
-        case REMOVE -> processRemoveConnection(loggedInUser, targetedUser);
+        throw selfActionRejection(action);
       }
+      User loggedInUser = findUserIdentityByEmail(loggedInUserEmail);
+
+      transactionOperations.executeWithoutResult(
+          status -> {
+            switch (action) {
+              case SEND -> processSendRequest(loggedInUser, targetedUser);
+              case ACCEPT -> processAcceptRequest(targetedUser, loggedInUser);
+              case DENY -> processDenyRequest(targetedUser, loggedInUser);
+              case REMOVE -> processRemoveConnection(loggedInUser, targetedUser);
+            }
+          });
+    } catch (DomainException ex) {
+      throw ex;
     } catch (Exception ex) {
       log.error("Error occurred while processing request action: {}", action);
       throw new DataAccessResourceFailureException(
           "Error occurred while processing request action: " + action, ex);
+    } finally {
+      userActionMetrics.record(action, false, start);
+    }
+  }
+
+  /**
+   * Applies a connection action to many users with a constant number of round trips: one {@code
+   * $in} query validates every id and the relationship store applies all transitions with one bulk
+   * write. Each id gets its own result, in request order.
+   */
+  private List<BatchItemResult> handleBatchRequestForConnection(
+      List<String> ids, RequestAction action) {
+    long start = System.nanoTime();
+    try {
+      User loggedInUser = findUserIdentityByEmail(authUtil.getCurrentUserEmail());
+      Set<ObjectId> requested = new LinkedHashSet<>();
+      ids.forEach(id -> requested.add(new ObjectId(id)));
+      Set<ObjectId> existing = new HashSet<>();
+      userRepository.findIdentitiesByIdIn(requested).forEach(user -> existing.add(user.getId()));
+
+      Map<ObjectId, BatchItemResult> results = new LinkedHashMap<>();
+      Set<ObjectId> candidates = new LinkedHashSet<>();
+      for (ObjectId userId : requested) {
+        String id = userId.toHexString();
+        if (userId.equals(loggedInUser.getId())) {
+          results.put(
+              userId,
+              BatchItemResult.failure(
+                  id, BatchItemResult.Status.REJECTED, getSelfActionErrorMessage(action)));
+        } else if (!existing.contains(userId)) {
+          results.put(
+              userId,
+              BatchItemResult.failure(
+                  id, BatchItemResult.Status.NOT_FOUND, Constants.USER_NOT_FOUND));
+        } else {
+          results.put(userId, null);
+          candidates.add(userId);
+        }
+      }
+      if (!candidates.isEmpty()) {
+        transactionOperations.executeWithoutResult(
+            status -> {
+              switch (action) {
+                case SEND -> processBatchSendRequest(loggedInUser, candidates, results);
+                case ACCEPT -> processBatchAcceptRequest(loggedInUser, candidates, results);
+                case DENY -> processBatchDenyRequest(loggedInUser, candidates, results);
+              }
+            });
+      }
+      log.info("Processed batch {} of {} ids", action, requested.size());
+      return List.copyOf(results.values());
+    } catch (DomainException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      log.error("Error occurred while processing batch request action: {}", action);
+      throw new DataAccessResourceFailureException(
+          "Error occurred while processing batch request action: " + action, ex);
+    } finally {
+      userActionMetrics.record(action, true, start);
     }
   }
 
   private void handleRequestForPermission(String id, RequestAction action) {
+    long start = System.nanoTime();
     try {
       String loggedInUserEmail = authUtil.getCurrentUserEmail();
-      User targetedUser = checkUserDoesExist(new ObjectId(id));
+      User targetedUser = findUserIdentityById(new ObjectId(id));
       if (loggedInUserEmail.equals(targetedUser.getEmail())) {
-        throw new DataNotFoundException(getSelfActionErrorMessage(action));
+        throw selfActionRejection(action);
       }
-      User loggedInUser = findUserByEmail(loggedInUserEmail);
+      User loggedInUser = findUserIdentityByEmail(loggedInUserEmail);
 
       if (loggedInUser.getEmail().equals(targetedUser.getEmail())) {
-        throw new DataNotFoundException(getSelfActionErrorMessage(action));
+        throw selfActionRejection(action);
       }
 
-      switch (action) {
-        case REQUEST_EMAIL -> processRequestPermission(loggedInUser, targetedUser, true);
-        case REQUEST_NUMBER -> processRequestPermission(loggedInUser, targetedUser, false);
-        case SHOW_EMAIL -> processShowPermission(targetedUser, loggedInUser, true);
-        case SHOW_NUMBER -> processShowPermission(targetedUser, loggedInUser, false);
-      }
+      transactionOperations.executeWithoutResult(
+          status -> {
+            switch (action) {
+              case REQUEST_EMAIL -> processRequestPermission(loggedInUser, targetedUser, true);
+              case REQUEST_NUMBER -> processRequestPermission(loggedInUser, targetedUser, false);
+              case SHOW_EMAIL -> processShowPermission(targetedUser, loggedInUser, true);
+              case SHOW_NUMBER -> processShowPermission(targetedUser, loggedInUser, false);
+            }
+          });
+    } catch (DomainException ex) {
+      throw ex;
     } catch (Exception ex) {
       log.error("Error occurred while processing requested permission: {}", action);
       throw new DataAccessResourceFailureException(
           "Error occurred while processing requested permission: " + action, ex);
+    } finally {
+      userActionMetrics.record(action, false, start);
     }
   }
 
   private void processSendRequest(User sender, User receiver) {
-    if (sender.getConnections().contains(receiver.getId())
-        || receiver.getConnections().contains(sender.getId())) {
-      throw new DataAlreadyExistException("Connection already exists");
+    switch (relationshipStore.sendRequest(sender.getId(), receiver.getId())) {
+      case CONNECTION_EXISTS -> throw Rejections.CONNECTION_EXISTS;
+      case REQUEST_ALREADY_SENT -> throw Rejections.REQUEST_ALREADY_SENT;
+      case REQUEST_ALREADY_RECEIVED -> throw Rejections.REQUEST_ALREADY_RECEIVED;
+      case USER_NOT_FOUND -> throw Rejections.USER_NOT_FOUND;
+      case CONFLICT -> throw Rejections.TRANSACTION_CONFLICT;
+      case SENT ->
+          appendEvent(DomainEvent.Type.CONNECTION_REQUESTED, sender.getId(), receiver.getId());
     }
+  }
 
-    if (sender.getOutgoingRequests().contains(receiver.getId())
-        || receiver.getIncomingRequests().contains(sender.getId())) {
-      throw new DataAlreadyExistException("Request already sent");
+  private void processAcceptRequest(User sender, User receiver) {
+    if (!relationshipStore.acceptRequest(sender.getId(), receiver.getId())) {
+      throw Rejections.REQUEST_NOT_FOUND;
     }
+    Connection connection = Connection.createConnection(sender.getId(), receiver.getId());
+    mongoTemplate.upsert(
+        connectionByPairKey(connection), connectionInsert(connection), Connection.class);
+    appendEvent(DomainEvent.Type.CONNECTION_ACCEPTED, receiver.getId(), sender.getId());
+  }
 
-    if (sender.getIncomingRequests().contains(receiver.getId())
-        || receiver.getOutgoingRequests().contains(sender.getId())) {
-      throw new DataAlreadyExistException("Request already received");
+  private void processBatchSendRequest(
+      User sender, Set<ObjectId> receivers, Map<ObjectId, BatchItemResult> results) {
+    List<DomainEvent> events = new ArrayList<>();
+    relationshipStore
+        .sendRequests(sender.getId(), receivers)
+        .forEach(
+            (receiver, outcome) -> {
+              String id = receiver.toHexString();
+              results.put(
+                  receiver,
+                  switch (outcome) {
+                    case SENT -> {
+                      events.add(
+                          DomainEvent.of(
+                              DomainEvent.Type.CONNECTION_REQUESTED, sender.getId(), receiver));
+                      yield BatchItemResult.success(id);
+                    }
+                    case CONNECTION_EXISTS ->
+                        BatchItemResult.failure(
+                            id, BatchItemResult.Status.CONFLICT, "Connection already exists");
+                    case REQUEST_ALREADY_SENT ->
+                        BatchItemResult.failure(
+                            id, BatchItemResult.Status.CONFLICT, "Request already sent");
+                    case REQUEST_ALREADY_RECEIVED ->
+                        BatchItemResult.failure(
+                            id, BatchItemResult.Status.CONFLICT, "Request already received");
+                    case USER_NOT_FOUND ->
+                        BatchItemResult.failure(
+                            id, BatchItemResult.Status.NOT_FOUND, Constants.USER_NOT_FOUND);
+                    case CONFLICT ->
+                        BatchItemResult.failure(
+                            id,
+                            BatchItemResult.Status.CONFLICT,
+                            Rejections.TRANSACTION_CONFLICT.getMessage());
+                  });
+            });
+    outboxRepository.append(events);
+  }
+
+  private void processBatchAcceptRequest(
+      User receiver, Set<ObjectId> senders, Map<ObjectId, BatchItemResult> results) {
+    Set<ObjectId> accepted = relationshipStore.acceptRequests(receiver.getId(), senders);
+    recordPendingResults(senders, accepted, results);
+    if (accepted.isEmpty()) {
+      return;
     }
+    BulkOperations connections =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Connection.class);
+    List<DomainEvent> events = new ArrayList<>();
+    for (ObjectId sender : accepted) {
+      Connection connection = Connection.createConnection(sender, receiver.getId());
+      connections.upsert(connectionByPairKey(connection), connectionInsert(connection));
+      events.add(DomainEvent.of(DomainEvent.Type.CONNECTION_ACCEPTED, receiver.getId(), sender));
+    }
+    connections.execute();
+    outboxRepository.append(events);
+  }
 
-    sender.getOutgoingRequests().add(receiver.getId());
-    receiver.getIncomingRequests().add(sender.getId());
-    userRepository.save(sender);
-    userRepository.save(receiver);
+  private void processBatchDenyRequest(
+      User receiver, Set<ObjectId> senders, Map<ObjectId, BatchItemResult> results) {
+    Set<ObjectId> denied = relationshipStore.denyRequests(receiver.getId(), senders);
+    recordPendingResults(senders, denied, results);
+    outboxRepository.append(
+        denied.stream()
+            .map(
+                sender ->
+                    DomainEvent.of(
+                        DomainEvent.Type.CONNECTION_REQUEST_DENIED, receiver.getId(), sender))
+            .toList());
   }
 
-  private void processAcceptRequest(User sender, User receiver) {
-    if (!sender.getOutgoingRequests().contains(receiver.getId())
-        || !receiver.getIncomingRequests().contains(sender.getId())) {
-      throw new DataNotFoundException(Constants.REQUEST_NOT_FOUND);
+  private static void recordPendingResults(
+      Set<ObjectId> senders, Set<ObjectId> processed, Map<ObjectId, BatchItemResult> results) {
+    for (ObjectId sender : senders) {
+      String id = sender.toHexString();
+      results.put(
+          sender,
+          processed.contains(sender)
+              ? BatchItemResult.success(id)
+              : BatchItemResult.failure(
+                  id, BatchItemResult.Status.NOT_FOUND, Constants.REQUEST_NOT_FOUND));
     }
-
-    sender.getOutgoingRequests().remove(receiver.getId());
-    receiver.getIncomingRequests().remove(sender.getId());
-    sender.getConnections().add(receiver.getId());
-    receiver.getConnections().add(sender.getId());
-    Connection connection = Connection.createConnection(sender.getId(), receiver.getId());
-    connectionRepository.save(connection);
-    userRepository.save(sender);
-    userRepository.save(receiver);
   }
 
   private void processDenyRequest(User sender, User receiver) {
-    if (!sender.getOutgoingRequests().contains(receiver.getId())
-        || !receiver.getIncomingRequests().contains(sender.getId())) {
-      throw new DataNotFoundException(Constants.REQUEST_NOT_FOUND);
+    if (!relationshipStore.denyRequest(sender.getId(), receiver.getId())) {
+      throw Rejections.REQUEST_NOT_FOUND;
     }
-
-    sender.getOutgoingRequests().remove(receiver.getId());
-    receiver.getIncomingRequests().remove(sender.getId());
-    userRepository.save(sender);
-    userRepository.save(receiver);
+    appendEvent(DomainEvent.Type.CONNECTION_REQUEST_DENIED, receiver.getId(), sender.getId());
   }
 
   private void processRemoveConnection(User sender, User receiver) {
-    if (!sender.getConnections().contains(receiver.getId())
-        || !receiver.getConnections().contains(sender.getId())) {
-      throw new DataNotFoundException(Constants.CONNECTION_NOT_FOUND);
-    }
-
-    sender.getConnections().remove(receiver.getId());
-    receiver.getConnections().remove(sender.getId());
     Connection connection = findConnectionByUser1AndUser2(sender.getId(), receiver.getId());
+    if (!relationshipStore.removeConnection(sender.getId(), receiver.getId())) {
+      throw Rejections.CONNECTION_NOT_FOUND;
+    }
     try {
       Optional<List<VisibilityRequest>> visibilityRequestOptional =
           findVisibilityRequestsByUser1AndUser2(sender.getId(), receiver.getId());
       if (visibilityRequestOptional.isPresent() && !visibilityRequestOptional.get().isEmpty())
         visibilityRequestRepository.deleteAll(visibilityRequestOptional.get());
       connectionRepository.delete(connection);
-      userRepository.save(sender);
-      userRepository.save(receiver);
+      appendEvent(DomainEvent.Type.CONNECTION_REMOVED, sender.getId(), receiver.getId());
     } catch (DataAccessResourceFailureException ex) {
       log.error("Error occurred while deleting connection");
       throw ex;
@@ -257,7 +486,7 @@ public class UserService {
         visibilityRequestRepository
             .findBySenderAndReceiverAndType(
                 sender.getId(), receiver.getId(), isEmail ? "EMAIL" : "PHONE")
-            .orElseThrow(() -> new DataNotFoundException(Constants.REQUEST_NOT_FOUND));
+            .orElseThrow(() -> Rejections.REQUEST_NOT_FOUND);
     Connection connection = findConnectionByUser1AndUser2(sender.getId(), receiver.getId());
     if (isEmail) {
       connection.setEmailShow(true);
@@ -266,22 +495,26 @@ public class UserService {
     }
     visibilityRequestRepository.delete(visibilityRequest);
     connectionRepository.save(connection);
+    appendEvent(
+        isEmail ? DomainEvent.Type.EMAIL_SHARED : DomainEvent.Type.PHONE_SHARED,
+        receiver.getId(),
+        sender.getId());
   }
 
   private void processRequestPermission(User sender, User receiver, boolean isEmail) {
     Connection connection = findConnectionByUser1AndUser2(sender.getId(), receiver.getId());
     if (isEmail) {
       if (Boolean.TRUE.equals(connection.getEmailShow())) {
-        throw new DataAlreadyExistException("Email already shared");
+        throw Rejections.EMAIL_ALREADY_SHARED;
       }
     } else {
       if (Boolean.TRUE.equals(connection.getNumberShow())) {
-        throw new DataAlreadyExistException("Phone number already shared");
+        throw Rejections.PHONE_ALREADY_SHARED;
       }
     }
     if (getVisibilityRequest(sender.getId(), receiver.getId(), isEmail ? "EMAIL" : "PHONE")
         .isPresent()) {
-      throw new DataAlreadyExistException("Request already exists");
+      throw Rejections.VISIBILITY_REQUEST_EXISTS;
     }
     VisibilityRequest visibilityRequest =
         VisibilityRequest.builder()
@@ -293,6 +526,39 @@ public class UserService {
             .requestTime(LocalDateTime.now())
             .build();
     visibilityRequestRepository.save(visibilityRequest);
+    appendEvent(
+        isEmail ? DomainEvent.Type.EMAIL_REQUESTED : DomainEvent.Type.PHONE_REQUESTED,
+        sender.getId(),
+        receiver.getId());
+  }
+
+  /**
+   * Records the change in the outbox within the surrounding transaction; {@link DomainEventRelay}
+   * publishes it once committed.
+   */
+  private void appendEvent(DomainEvent.Type type, ObjectId actor, ObjectId subject) {
+    outboxRepository.append(List.of(DomainEvent.of(type, actor, subject)));
+  }
+
+  private static Query connectionByPairKey(Connection connection) {
+    return new Query(Criteria.where("pairKey").is(connection.getPairKey()));
+  }
+
+  /**
+   * Creates the connection unless its pair key already exists, e.g. from a concurrent accept. A
+   * duplicate key error would abort the surrounding transaction, an upsert does not.
+   */
+  private static Update connectionInsert(Connection connection) {
+    return new Update()
+        .setOnInsert("user1", connection.getUser1())
+        .setOnInsert("user2", connection.getUser2())
+        .setOnInsert("connectionTime", connection.getConnectionTime())
+        .setOnInsert("emailShow", connection.getEmailShow())
+        .setOnInsert("numberShow", connection.getNumberShow());
+  }
+
+  private DataNotFoundException selfActionRejection(RequestAction action) {
+    return new DataNotFoundException(getSelfActionErrorMessage(action), ErrorCode.SELF_ACTION);
   }
 
   private String getSelfActionErrorMessage(RequestAction action) {
@@ -310,7 +576,7 @@ public class UserService {
     try {
       return connectionRepository
           .findByUser1AndUser2(user1, user2)
-          .orElseThrow(() -> new DataNotFoundException(Constants.CONNECTION_NOT_FOUND));
+          .orElseThrow(() -> Rejections.CONNECTION_NOT_FOUND);
     } catch (DataAccessResourceFailureException ex) {
       log.error("Error occurred while fetching connection data");
       throw ex;
@@ -335,16 +601,21 @@ public class UserService {
     return visibilityRequestRepository.findBySenderAndReceiverAndType(sender, receiver, type);
   }
 
-  private User updateAndSaveUser(User user, UserRequest userRequest) {
-    try {
-      return userRepository.save(User.updateUserFrom(user, userRequest));
-    } catch (Exception ex) {
-      log.error("Error occurred while saving user");
-      throw new DataAccessResourceFailureException("Constants.CANNOT_SAVE_USER", ex);
-    }
+  private static UserResponse toUserResponse(User user) {
+    return UserResponse.builder()
+        .firstName(user.getFirstName())
+        .lastName(user.getLastName())
+        .gender(user.getGender())
+        .location(user.getLocation())
+        .phone(user.getPhone())
+        .email(user.getEmail())
+        .imageUrl(user.getImageUrl())
+        .tagLine(user.getTagLine())
+        .summary(user.getSummary())
+        .build();
   }
 
-  private enum RequestAction {
+  enum RequestAction {
     SEND,
     ACCEPT,
     DENY,
@@ -0,0 +1,119 @@
+package com.arindamcreates.matchmingle.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, e.g. while blocking inside a {@code
+ * synchronized} block, which defeats the virtual thread mode enabled by {@code
+ * spring.threads.virtual.enabled}. Pinning is observed through the JFR {@code
+ * jdk.VirtualThreadPinned} event and grouped by the first application frame of its stack.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final String APPLICATION_PACKAGE = "com.arindamcreates.matchmingle.";
+
+  private final boolean enabled;
+  private final Duration threshold;
+  private final Counter pinnedCounter;
+  private final Map<String, LongAdder> pinnedByFrame = new ConcurrentHashMap<>();
+  private RecordingStream recordingStream;
+
+  public VirtualThreadPinningMonitor(
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+      @Value("${matchmingle.virtual-threads.pinning-detection.enabled:true}") boolean detection,
+      @Value("${matchmingle.virtual-threads.pinning-detection.threshold:PT20MS}")
+          Duration threshold,
+      MeterRegistry meterRegistry) {
+    this.enabled = virtualThreadsEnabled && detection;
+    this.threshold = threshold;
+    this.pinnedCounter =
+        Counter.builder("matchmingle.virtual.threads.pinned")
+            .description("Virtual threads pinned to their carrier longer than the threshold")
+            .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    if (!enabled) {
+      return;
+    }
+    recordingStream = new RecordingStream();
+    recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+    recordingStream.startAsync();
+    log.info("Virtual thread pinning detection started with threshold={}", threshold);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (recordingStream != null) {
+      recordingStream.close();
+    }
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Long> frames = new LinkedHashMap<>();
+    pinnedByFrame.entrySet().stream()
+        .sorted(Map.Entry.comparingByValue((a, b) -> Long.compare(b.sum(), a.sum())))
+        .forEach(entry -> frames.put(entry.getKey(), entry.getValue().sum()));
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("enabled", enabled);
+    result.put("threshold", threshold.toString());
+    result.put("pinnedCount", (long) pinnedCounter.count());
+    result.put("pinnedByFrame", frames);
+    return result;
+  }
+
+  private void onPinned(RecordedEvent event) {
+    String frame = pinningFrame(event.getStackTrace());
+    pinnedCounter.increment();
+    LongAdder count = pinnedByFrame.computeIfAbsent(frame, key -> new LongAdder());
+    count.increment();
+    // Only the first occurrence per frame is a warning, repeats would flood the log.
+    if (count.sum() == 1) {
+      log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frame);
+    } else {
+      log.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frame);
+    }
+  }
+
+  private static String pinningFrame(RecordedStackTrace stackTrace) {
+    if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+      return "unknown";
+    }
+    List<RecordedFrame> frames = stackTrace.getFrames();
+    return frames.stream()
+        .filter(RecordedFrame::isJavaFrame)
+        .filter(f -> f.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+        .findFirst()
+        .map(VirtualThreadPinningMonitor::describe)
+        .orElseGet(() -> describe(frames.getFirst()));
+  }
+
+  private static String describe(RecordedFrame frame) {
+    return frame.getMethod().getType().getName()
+        + "."
+        + frame.getMethod().getName()
+        + ":"
+        + frame.getLineNumber();
+  }
+}
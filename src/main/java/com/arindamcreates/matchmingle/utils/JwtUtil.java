@@ -1,47 +1,136 @@
 package com.arindamcreates.matchmingle.utils;
 
 
+import com.arindamcreates.matchmingle.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import javax.crypto.SecretKey;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 public class JwtUtil {
 
+    public static final String ROLES_CLAIM = "roles";
+
+    public static final String USER_ID_CLAIM = "uid";
+
+    public static final String SECURITY_VERSION_CLAIM = "sv";
+
     @Value("${jwt.secret.key}")
     private String SECRET_KEY;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    @Getter
+    @Value("${jwt.claims-authorization.enabled:false}")
+    private boolean claimsAuthorizationEnabled;
+
+    @Value("${jwt.verified-token-cache.max-size:10000}")
+    private long verifiedTokenCacheMaxSize;
+
+    @Value("${jwt.verified-token-cache.ttl:PT10M}")
+    private Duration verifiedTokenCacheTtl;
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    private Cache<String, TokenClaims> verifiedTokens;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer cachedParseTimer;
+
+    private Timer verifiedParseTimer;
+
+    @PostConstruct
+    void init() {
+        // Key derivation and parser construction are done once, not per token.
+        signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheMaxSize)
+                .expireAfter(new VerifiedTokenExpiry(verifiedTokenCacheTtl))
+                .build();
+        cachedParseTimer = parseTimer("hit");
+        verifiedParseTimer = parseTimer("miss");
+    }
+
+    private Timer parseTimer(String cache) {
+        return Timer.builder("matchmingle.jwt.parse")
+                .description("Token parsing, with signature verification on a cache miss")
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies the signature of the token and returns its claims. A token is verified and parsed
+     * at most once while it stays in the verified token cache.
+     */
+    public TokenClaims parseToken(String token) {
+        long start = System.nanoTime();
+        String tokenHash = hash(token);
+        TokenClaims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            cachedParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        try {
+            TokenClaims claims = toTokenClaims(extractAllClaims(token));
+            verifiedTokens.put(tokenHash, claims);
+            return claims;
+        } finally {
+            verifiedParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     public String extractUsername(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.getSubject();
+        return parseToken(token).getSubject();
     }
 
     public Date extractExpiration(String token) {
-        return extractAllClaims(token).getExpiration();
+        return parseToken(token).getExpiration();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private TokenClaims toTokenClaims(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        List<String> roleNames = roles == null
+                ? Collections.emptyList()
+                : roles.stream().map(String::valueOf).toList();
+        Number securityVersion = claims.get(SECURITY_VERSION_CLAIM, Number.class);
+        return new TokenClaims(
+                claims.getSubject(),
+                claims.getExpiration(),
+                roleNames,
+                claims.get(USER_ID_CLAIM, String.class),
+                securityVersion == null ? null : securityVersion.longValue());
     }
 
     public String generateToken(String username) {
@@ -49,6 +138,22 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    /**
+     * Generates a token for the user. When claims authorization is enabled the role, id and
+     * security version of the user are embedded so requests can be authorised without a lookup.
+     */
+    public String generateToken(User user) {
+        if (!claimsAuthorizationEnabled) {
+            return generateToken(user.getEmail());
+        }
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, List.of(user.getRole()));
+        claims.put(USER_ID_CLAIM, user.getId().toHexString());
+        claims.put(SECURITY_VERSION_CLAIM,
+                user.getSecurityVersion() == null ? 0L : user.getSecurityVersion());
+        return createToken(claims, user.getEmail());
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .claims(claims)
@@ -57,13 +162,46 @@ public class JwtUtil {
                 .and()
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30L))) // 30 days
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public Boolean validateToken(String token) {
-        return !isTokenExpired(token);
+        return !parseToken(token).isExpired();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hashed = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hashed);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
     }
 
+    /** Keeps a verified token no longer than the configured TTL and never past its own expiry. */
+    private record VerifiedTokenExpiry(Duration ttl) implements Expiry<String, TokenClaims> {
 
+        @Override
+        public long expireAfterCreate(String key, TokenClaims claims, long currentTime) {
+            long ttlNanos = ttl.toNanos();
+            if (claims.getExpiration() == null) {
+                return ttlNanos;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(
+                    claims.getExpiration().getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.arindamcreates.matchmingle.utils;
+
+import java.util.Date;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TokenClaims {
+
+    private final String subject;
+
+    private final Date expiration;
+
+    private final List<String> roles;
+
+    private final String userId;
+
+    private final Long securityVersion;
+
+    /** Whether the token carries the role and security version needed to authorise without a lookup. */
+    public boolean hasAuthorizationClaims() {
+        return userId != null && securityVersion != null && !roles.isEmpty();
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}